@@ -0,0 +1,153 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Пропускная способность пакетной вставки во встроенную базу данных
+ * (строк в секунду): пакет JDBC с анонимными параметрами, пакет с
+ * установкой значений по именам и по {@link ParamSlot}, пакет из коллекций
+ * "имя параметра - значение", {@link BatchBuffer} и {@link MultiRowInsert}
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String SQL = "INSERT INTO t (id, name, amount) VALUES (:id, :name, :amount)";
+
+    private Connection connection;
+    private PreparedStatement positional;
+    private NamedPreparedStatement named;
+    private ParamSlot id;
+    private ParamSlot name;
+    private ParamSlot amount;
+    private MultiRowInsert multiRowInsert;
+    private String[] names;
+    private List<Map<String, Object>> rows;
+
+    @Setup
+    public void setUp() throws SQLException, UnknownParameterException {
+        connection = BenchmarkDatabase.connect("batch");
+        BenchmarkDatabase.execute(connection, "DROP TABLE IF EXISTS t");
+        BenchmarkDatabase.execute(connection, "CREATE TABLE t (id BIGINT, name VARCHAR(32), amount DOUBLE)");
+        positional = connection.prepareStatement("INSERT INTO t (id, name, amount) VALUES (?, ?, ?)");
+        named = new NamedPreparedStatement(connection, SQL);
+        named.setBatchSize(ROWS);
+        id = named.getParamSlot("id");
+        name = named.getParamSlot("name");
+        amount = named.getParamSlot("amount");
+        multiRowInsert = new MultiRowInsert(connection, SQL);
+        names = new String[16];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "name" + i;
+        }
+        rows = new ArrayList<Map<String, Object>>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("id", (long) i);
+            row.put("name", names[i % names.length]);
+            row.put("amount", i * 0.5);
+            rows.add(row);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        BenchmarkDatabase.execute(connection, "TRUNCATE TABLE t");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        multiRowInsert.close();
+        positional.close();
+        named.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] positional() throws SQLException {
+        for (int i = 0; i < ROWS; i++) {
+            positional.setLong(1, i);
+            positional.setString(2, names[i % names.length]);
+            positional.setDouble(3, i * 0.5);
+            positional.addBatch();
+        }
+        return positional.executeBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] byName() throws SQLException, UnknownParameterException {
+        for (int i = 0; i < ROWS; i++) {
+            named.setLong("id", i);
+            named.setString("name", names[i % names.length]);
+            named.setDouble("amount", i * 0.5);
+            named.addBatch();
+        }
+        return named.executeBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] bySlot() throws SQLException {
+        for (int i = 0; i < ROWS; i++) {
+            named.setLong(id, i);
+            named.setString(name, names[i % names.length]);
+            named.setDouble(amount, i * 0.5);
+            named.addBatch();
+        }
+        return named.executeBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long fromMaps() throws SQLException, UnknownParameterException {
+        return named.executeBatch(rows);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] batchBuffer() throws SQLException, UnknownParameterException {
+        BatchBuffer buffer = named.getBatchBuffer();
+        for (int i = 0; i < ROWS; i++) {
+            buffer.setLong(id, i);
+            buffer.setString(name, names[i % names.length]);
+            buffer.setDouble(amount, i * 0.5);
+            buffer.addRow();
+        }
+        return buffer.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long multiRowInsert() throws SQLException, UnknownParameterException {
+        return multiRowInsert.executeInsert(rows);
+    }
+}
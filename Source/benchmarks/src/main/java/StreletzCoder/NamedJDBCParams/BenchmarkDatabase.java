@@ -0,0 +1,88 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Встроенная база данных H2 в памяти процесса для тестов
+ * производительности
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Открывает соединение с отдельной базой данных в памяти
+     *
+     * @param name Имя базы данных
+     * @return
+     * @throws SQLException
+     */
+    static Connection connect(String name) throws SQLException {
+        return DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /**
+     * Выполняет SQL запрос без параметров
+     *
+     * @param connection Соединение с базой данных
+     * @param sql SQL запрос
+     * @throws SQLException
+     */
+    static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Формирует запрос INSERT с указанным числом столбцов c0, c1, ... и
+     * параметров p0, p1, ...
+     *
+     * @param table Таблица
+     * @param columns Число столбцов
+     * @param syntax Синтаксис параметров (null - анонимные параметры)
+     * @return
+     */
+    static String insertSql(String table, int columns, ParamSyntax syntax) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        for (int i = 0; i < columns; i++) {
+            sql.append(i == 0 ? "c" : ", c").append(i);
+        }
+        sql.append(") VALUES (");
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            if (syntax == null) {
+                sql.append('?');
+            } else if (syntax == ParamSyntax.BRACES) {
+                sql.append("#{p").append(i).append('}');
+            } else {
+                sql.append(syntax.getPrefix()).append('p').append(i);
+            }
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Создаёт таблицу с указанным числом целочисленных столбцов c0, c1, ...
+     *
+     * @param connection Соединение с базой данных
+     * @param table Таблица
+     * @param columns Число столбцов
+     * @throws SQLException
+     */
+    static void createIntTable(Connection connection, String table, int columns) throws SQLException {
+        StringBuilder sql = new StringBuilder("CREATE TABLE ").append(table).append(" (");
+        for (int i = 0; i < columns; i++) {
+            sql.append(i == 0 ? "c" : ", c").append(i).append(" INT");
+        }
+        execute(connection, sql.append(')').toString());
+    }
+}
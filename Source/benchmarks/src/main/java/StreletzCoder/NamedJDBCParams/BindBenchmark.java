@@ -0,0 +1,101 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Установка значений всех параметров запроса: по индексам анонимных
+ * параметров (без библиотеки), по именам, по заранее разрешённым параметрам
+ * ({@link ParamSlot}) и из коллекции "имя параметра - значение". Запрос не
+ * выполняется, поэтому измеряются только затраты на установку значений.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BindBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int paramCount;
+
+    private Connection connection;
+    private PreparedStatement positional;
+    private NamedPreparedStatement named;
+    private String[] names;
+    private ParamSlot[] slots;
+    private Map<String, Object> values;
+    private int value;
+
+    @Setup
+    public void setUp() throws SQLException, UnknownParameterException {
+        connection = BenchmarkDatabase.connect("bind");
+        BenchmarkDatabase.execute(connection, "DROP TABLE IF EXISTS t");
+        BenchmarkDatabase.createIntTable(connection, "t", paramCount);
+        positional = connection.prepareStatement(BenchmarkDatabase.insertSql("t", paramCount, null));
+        named = new NamedPreparedStatement(connection, BenchmarkDatabase.insertSql("t", paramCount, ParamSyntax.COLON));
+        names = new String[paramCount];
+        slots = new ParamSlot[paramCount];
+        values = new HashMap<String, Object>();
+        for (int i = 0; i < paramCount; i++) {
+            names[i] = "p" + i;
+            slots[i] = named.getParamSlot(names[i]);
+            values.put(names[i], i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        positional.close();
+        named.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void positional() throws SQLException {
+        int v = value++;
+        for (int i = 0; i < paramCount; i++) {
+            positional.setInt(i + 1, v);
+        }
+    }
+
+    @Benchmark
+    public void byName() throws SQLException, UnknownParameterException {
+        int v = value++;
+        for (int i = 0; i < paramCount; i++) {
+            named.setInt(names[i], v);
+        }
+    }
+
+    @Benchmark
+    public void bySlot() throws SQLException {
+        int v = value++;
+        for (int i = 0; i < paramCount; i++) {
+            named.setInt(slots[i], v);
+        }
+    }
+
+    @Benchmark
+    public void fromMap() throws SQLException, UnknownParameterException {
+        named.setParameters(values);
+    }
+}
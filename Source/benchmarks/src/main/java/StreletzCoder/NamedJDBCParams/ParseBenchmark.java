@@ -0,0 +1,64 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Разбор параметрического SQL запроса в зависимости от числа параметров,
+ * длины запроса и синтаксиса параметров: разбор без кэша и получение
+ * результата разбора из {@link ParsedSqlCache}
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int paramCount;
+
+    @Param({"0", "10000"})
+    private int commentLength;
+
+    @Param({"COLON", "BRACES"})
+    private ParamSyntax syntax;
+
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder(BenchmarkDatabase.insertSql("t", paramCount, syntax));
+        if (commentLength > 0) {
+            text.append(" /* ");
+            for (int i = 0; i < commentLength; i++) {
+                text.append((char) ('a' + i % 26));
+            }
+            text.append(" */");
+        }
+        sql = text.toString();
+    }
+
+    @Benchmark
+    public ParsedNamedSql parse() {
+        return ParsedNamedSql.parse(sql, syntax);
+    }
+
+    @Benchmark
+    public ParsedNamedSql cached() {
+        return ParsedSqlCache.get(sql, syntax);
+    }
+}
@@ -0,0 +1,84 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Создание запроса: PreparedStatement с анонимными параметрами,
+ * {@link NamedPreparedStatement} по тексту запроса (с разбором через кэш) и
+ * по заранее разобранному запросу, а также повторное использование запроса
+ * из {@link NamedStatementCache}
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrepareBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int paramCount;
+
+    private Connection connection;
+    private String sql;
+    private String positionalSql;
+    private ParsedNamedSql parsedSql;
+    private NamedStatementCache cache;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect("prepare");
+        BenchmarkDatabase.execute(connection, "DROP TABLE IF EXISTS t");
+        BenchmarkDatabase.createIntTable(connection, "t", paramCount);
+        sql = BenchmarkDatabase.insertSql("t", paramCount, ParamSyntax.COLON);
+        positionalSql = BenchmarkDatabase.insertSql("t", paramCount, null);
+        parsedSql = ParsedNamedSql.parse(sql);
+        cache = new NamedStatementCache(connection);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        cache.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void positional() throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(positionalSql);
+        statement.close();
+    }
+
+    @Benchmark
+    public void named() throws SQLException {
+        NamedPreparedStatement statement = new NamedPreparedStatement(connection, sql);
+        statement.close();
+    }
+
+    @Benchmark
+    public void namedPreparsed() throws SQLException {
+        NamedPreparedStatement statement = new NamedPreparedStatement(connection, parsedSql);
+        statement.close();
+    }
+
+    @Benchmark
+    public NamedPreparedStatement namedCached() throws SQLException {
+        return cache.prepare(sql);
+    }
+}
@@ -0,0 +1,144 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Асинхронное выполнение запросов. По умолчанию используются виртуальные
+ * потоки (Java 21 и новее), на более ранних версиях - пул потоков-демонов.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+final class AsyncSupport {
+
+    /**
+     * Владелец запроса, задача которого ожидает запуска в исполнителе
+     */
+    static final Object PENDING = new Object();
+
+    private static volatile Executor defaultExecutor;
+
+    private AsyncSupport() {
+    }
+
+    /**
+     * Возвращает исполнитель асинхронных запросов по умолчанию
+     *
+     * @return
+     */
+    static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (AsyncSupport.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = createExecutor();
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Устанавливает исполнитель асинхронных запросов по умолчанию
+     *
+     * @param executor Исполнитель (null - исполнитель по умолчанию)
+     */
+    static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    private static Executor createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            /*Виртуальные потоки недоступны*/
+        }
+        final AtomicInteger number = new AtomicInteger();
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "NamedJDBCParams-async-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Выполняет задачу с запросом в исполнителе. Одновременно для запроса
+     * может выполняться только одна задача; отмена результата прерывает
+     * выполнение запроса вызовом Statement.cancel().
+     *
+     * Пока задача не завершена, владельцем запроса считается поток
+     * исполнителя, выполняющий задачу (до его запуска - {@link #PENDING}).
+     *
+     * @param <T> Тип результата
+     * @param executor Исполнитель
+     * @param owner Владелец запроса (null - запрос свободен)
+     * @param statement Запрос
+     * @param task Задача
+     * @return Результат выполнения задачи
+     * @throws IllegalStateException Если для запроса уже выполняется задача
+     */
+    static <T> CompletableFuture<T> submit(Executor executor, final AtomicReference<Object> owner, final Statement statement, final Callable<T> task) {
+        if (!owner.compareAndSet(null, PENDING)) {
+            throw new IllegalStateException("Statement is already executing");
+        }
+        final CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    try {
+                        statement.cancel();
+                    } catch (SQLException ex) {
+                        /*Запрос уже завершён либо отмена не поддерживается*/
+                    }
+                }
+                return cancelled;
+            }
+        };
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isDone()) {
+                        owner.set(null);
+                        return;
+                    }
+                    owner.set(Thread.currentThread());
+                    T result = null;
+                    Throwable error = null;
+                    try {
+                        result = task.call();
+                    } catch (Throwable ex) {
+                        error = ex;
+                    } finally {
+                        /*Освобождается до завершения результата, чтобы следующая операция могла начаться сразу*/
+                        owner.set(null);
+                    }
+                    if (error == null) {
+                        future.complete(result);
+                    } else {
+                        future.completeExceptionally(error);
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            owner.set(null);
+            throw ex;
+        }
+        return future;
+    }
+}
@@ -0,0 +1,406 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Буфер строк пакета параметрического запроса. Значения параметров хранятся
+ * по столбцам (по одному столбцу на параметр) в массивах примитивных типов,
+ * строки - со словарным кодированием, поэтому накопление пакета не создаёт
+ * объектов на каждое значение. Накопленные строки передаются драйверу одним
+ * циклом при выполнении пакета; после ошибки любой диапазон строк может быть
+ * выполнен повторно без повторного получения исходных данных.
+ *
+ * Тип столбца определяется первым отличным от NULL значением параметра.
+ * Параметры-списки не поддерживаются.
+ *
+ * Пример использования:
+ * <pre>
+ * BatchBuffer buffer = stmt.getBatchBuffer();
+ * ParamSlot id = stmt.getParamSlot("id");
+ * ParamSlot name = stmt.getParamSlot("name");
+ * for (User user : users) {
+ *     buffer.setLong(id, user.getId());
+ *     buffer.setString(name, user.getName());
+ *     buffer.addRow();
+ * }
+ * buffer.flush();
+ * </pre>
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class BatchBuffer {
+
+    private final NamedPreparedStatement statement;
+    private final ParsedNamedSql parsedSql;
+    private final Column[] columns;
+    private final boolean[] assigned;
+    private int assignedCount;
+    private int rowCount;
+
+    BatchBuffer(NamedPreparedStatement statement) {
+        this.statement = statement;
+        parsedSql = statement.getParsedSql();
+        columns = new Column[parsedSql.getParamCount()];
+        assigned = new boolean[columns.length];
+    }
+
+    /**
+     * Возвращает число накопленных строк
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Устанавливает значение параметра типа целое число (int) в текущей
+     * строке
+     *
+     * @param slot Параметр
+     * @param value Значение
+     */
+    public void setInt(ParamSlot slot, int value) {
+        int ordinal = assign(slot);
+        Column column = columns[ordinal];
+        if (column instanceof LongColumn) {
+            ((LongColumn) column).set(rowCount, value);
+        } else if (column instanceof DoubleColumn) {
+            ((DoubleColumn) column).set(rowCount, value);
+        } else {
+            column(ordinal, IntColumn.class).set(rowCount, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение параметра типа целое число (long) в текущей
+     * строке
+     *
+     * @param slot Параметр
+     * @param value Значение
+     */
+    public void setLong(ParamSlot slot, long value) {
+        column(assign(slot), LongColumn.class).set(rowCount, value);
+    }
+
+    /**
+     * Устанавливает значение параметра типа число с плавающей точкой
+     * (double) в текущей строке
+     *
+     * @param slot Параметр
+     * @param value Значение
+     */
+    public void setDouble(ParamSlot slot, double value) {
+        column(assign(slot), DoubleColumn.class).set(rowCount, value);
+    }
+
+    /**
+     * Устанавливает значение параметра типа строка (String) в текущей строке
+     *
+     * @param slot Параметр
+     * @param value Значение
+     */
+    public void setString(ParamSlot slot, String value) {
+        int ordinal = assign(slot);
+        if (value == null) {
+            setNull(ordinal);
+        } else {
+            column(ordinal, StringColumn.class).set(rowCount, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение параметра произвольного класса в текущей строке.
+     * При выполнении используется типизированный сеттер, соответствующий
+     * классу значения.
+     *
+     * @param slot Параметр
+     * @param value Значение
+     */
+    public void setObject(ParamSlot slot, Object value) {
+        if (value instanceof Collection) {
+            throw new IllegalArgumentException("List parameters are not supported by the batch buffer: " + slot.getName());
+        }
+        int ordinal = assign(slot);
+        if (value == null) {
+            setNull(ordinal);
+        } else {
+            column(ordinal, ObjectColumn.class).set(rowCount, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение NULL параметра в текущей строке
+     *
+     * @param slot Параметр
+     */
+    public void setNull(ParamSlot slot) {
+        setNull(assign(slot));
+    }
+
+    /**
+     * Завершает текущую строку. Значения должны быть установлены для всех
+     * параметров запроса.
+     *
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если
+     * значения установлены не для всех параметров
+     */
+    public void addRow() throws UnknownParameterException {
+        if (assignedCount < assigned.length) {
+            StringBuilder missing = new StringBuilder();
+            for (int i = 0; i < assigned.length; i++) {
+                if (!assigned[i]) {
+                    missing.append(missing.length() == 0 ? "" : ", ").append(parsedSql.getParamName(i));
+                }
+            }
+            throw new UnknownParameterException("Missing parameters: [" + missing + "]");
+        }
+        for (int i = 0; i < assigned.length; i++) {
+            assigned[i] = false;
+        }
+        assignedCount = 0;
+        rowCount++;
+    }
+
+    /**
+     * Возвращает значения параметров строки
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return Коллекция "имя параметра - значение"
+     */
+    public Map<String, Object> getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + rowCount);
+        }
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            values.put(parsedSql.getParamName(i), column == null || row >= column.size() ? null : column.getObject(row));
+        }
+        return values;
+    }
+
+    /**
+     * Выполняет все накопленные строки одним пакетом и очищает буфер. При
+     * ошибке строки остаются в буфере и могут быть выполнены повторно
+     * методом {@link #replay(int, int)}.
+     *
+     * @return Число обработанных записей для каждой строки пакета
+     * @throws SQLException
+     */
+    public int[] flush() throws SQLException {
+        int[] counts = replay(0, rowCount);
+        clear();
+        return counts;
+    }
+
+    /**
+     * Выполняет все накопленные строки, отделяя строки, отклонённые базой
+     * данных, и очищает буфер. Отклонённые строки передаются получателю, все
+     * остальные строки выполняются.
+     *
+     * Каждая часть пакета выполняется после точки сохранения; при ошибке
+     * изменения части откатываются до точки сохранения, а часть делится
+     * пополам и выполняется повторно, пока ошибочные строки не будут выделены
+     * поодиночке. При небольшой доле ошибочных строк число дополнительных
+     * выполнений пропорционально логарифму размера пакета на каждую такую
+     * строку. Отклонённые строки определяются только выполнением, поэтому
+     * результат не зависит от того, выполняет ли драйвер пакет атомарно и
+     * какие числа обработанных записей он сообщает после ошибки.
+     *
+     * Если автоматическая фиксация транзакций отключена, фиксацию выполняет
+     * вызывающий код. Если она включена, на время выполнения она
+     * отключается: все выполненные строки фиксируются вместе по завершении,
+     * а при ошибке изменения откатываются и строки остаются в буфере, так
+     * что повторный вызов не выполнит их дважды (получатель при этом может
+     * быть вызван для тех же строк повторно).
+     *
+     * @param handler Получатель отклонённых строк
+     * @return Число обработанных записей для каждой строки буфера
+     * (Statement.EXECUTE_FAILED для отклонённых строк)
+     * @throws SQLException Ошибка, не являющаяся ошибкой выполнения пакета,
+     * либо ошибка получателя. Строки остаются в буфере; при отключённой
+     * автоматической фиксации изменения следует откатить вызывающим кодом.
+     */
+    public int[] flush(RejectedRowHandler handler) throws SQLException {
+        int[] counts = new int[rowCount];
+        Connection con = statement.getConnection();
+        if (!con.getAutoCommit()) {
+            executeBisecting(con, 0, rowCount, counts, handler);
+            clear();
+            return counts;
+        }
+        con.setAutoCommit(false);
+        try {
+            executeBisecting(con, 0, rowCount, counts, handler);
+            con.commit();
+        } catch (SQLException ex) {
+            rollback(con, ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            rollback(con, ex);
+            throw ex;
+        } finally {
+            con.setAutoCommit(true);
+        }
+        clear();
+        return counts;
+    }
+
+    /**
+     * Откатывает транзакцию после ошибки; ошибка отката добавляется к
+     * исходной ошибке
+     */
+    private static void rollback(Connection con, Exception error) {
+        try {
+            con.rollback();
+        } catch (SQLException ex) {
+            error.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Выполняет строки диапазона после точки сохранения, при ошибке деля
+     * диапазон пополам
+     */
+    private void executeBisecting(Connection con, int from, int to, int[] counts, RejectedRowHandler handler) throws SQLException {
+        if (from == to) {
+            return;
+        }
+        Savepoint savepoint = con.setSavepoint();
+        try {
+            int[] result = replay(from, to);
+            System.arraycopy(result, 0, counts, from, result.length);
+        } catch (BatchUpdateException ex) {
+            con.rollback(savepoint);
+            if (to - from == 1) {
+                reject(from, counts, handler, ex);
+            } else {
+                int middle = (from + to) >>> 1;
+                executeBisecting(con, from, middle, counts, handler);
+                executeBisecting(con, middle, to, counts, handler);
+            }
+        } finally {
+            try {
+                con.releaseSavepoint(savepoint);
+            } catch (SQLFeatureNotSupportedException ex) {
+                /*Точка сохранения освобождается при завершении транзакции*/
+            }
+        }
+    }
+
+    private void reject(int row, int[] counts, RejectedRowHandler handler, SQLException error) throws SQLException {
+        counts[row] = Statement.EXECUTE_FAILED;
+        handler.rejected(row, getRow(row), error);
+    }
+
+    /**
+     * Выполняет одним пакетом строки диапазона. Буфер не изменяется.
+     *
+     * @param from Первая строка (начиная с 0)
+     * @param to Строка, следующая за последней
+     * @return Число обработанных записей для каждой строки диапазона
+     * @throws SQLException
+     */
+    public int[] replay(int from, int to) throws SQLException {
+        if (from < 0 || to > rowCount || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + ", size " + rowCount);
+        }
+        if (from == to) {
+            return new int[0];
+        }
+        statement.resetShape();
+        PreparedStatement pstmt = statement.getPreparedStatement();
+        int[][] indexes = new int[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            indexes[i] = parsedSql.getParamIndexes(i);
+        }
+        long start = ExecutionMetrics.start();
+        try {
+            for (int row = from; row < to; row++) {
+                for (int i = 0; i < columns.length; i++) {
+                    Column column = columns[i];
+                    if (column == null || row >= column.size()) {
+                        ValueBinder.bindValue(pstmt, indexes[i], null);
+                    } else {
+                        column.bind(pstmt, indexes[i], row);
+                    }
+                }
+                statement.addBatch();
+            }
+            ExecutionMetrics.bound(parsedSql.getSql(), start);
+            return statement.executeBatch();
+        } catch (SQLException ex) {
+            statement.clearDriverBatch();
+            throw ex;
+        }
+    }
+
+    /**
+     * Удаляет накопленные строки (включая незавершённую). Выделенная память
+     * сохраняется для повторного использования.
+     */
+    public void clear() {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                columns[i].clear();
+            }
+            assigned[i] = false;
+        }
+        assignedCount = 0;
+        rowCount = 0;
+    }
+
+    private int assign(ParamSlot slot) {
+        if (!slot.getParsedSql().isSameQuery(parsedSql)) {
+            throw new IllegalArgumentException("Parameter slot belongs to another statement: " + slot.getName());
+        }
+        int ordinal = slot.getOrdinal();
+        if (!assigned[ordinal]) {
+            assigned[ordinal] = true;
+            assignedCount++;
+        }
+        return ordinal;
+    }
+
+    private void setNull(int ordinal) {
+        if (columns[ordinal] != null) {
+            columns[ordinal].setNull(rowCount);
+        }
+    }
+
+    /**
+     * Возвращает столбец параметра, создавая его при первом значении. В
+     * созданный столбец для предыдущих строк записывается NULL.
+     */
+    private <C extends Column> C column(int ordinal, Class<C> type) {
+        Column column = columns[ordinal];
+        if (column == null) {
+            if (type == IntColumn.class) {
+                column = new IntColumn();
+            } else if (type == LongColumn.class) {
+                column = new LongColumn();
+            } else if (type == DoubleColumn.class) {
+                column = new DoubleColumn();
+            } else if (type == StringColumn.class) {
+                column = new StringColumn();
+            } else {
+                column = new ObjectColumn();
+            }
+            column.setNull(0, rowCount);
+            columns[ordinal] = column;
+        } else if (!type.isInstance(column)) {
+            throw new IllegalStateException("Parameter " + parsedSql.getParamName(ordinal) + " is buffered as " + column.getClass().getSimpleName());
+        }
+        return type.cast(column);
+    }
+}
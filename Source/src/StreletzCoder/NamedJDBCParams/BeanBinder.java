@@ -0,0 +1,312 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * План установки значений параметров запроса из свойств объекта. Для каждого
+ * параметра заранее находится метод чтения значения: getXxx(), isXxx() либо
+ * xxx() (компонент записи, record). План строится один раз для сочетания
+ * "класс - SQL запрос - синтаксис параметров" и использует MethodHandle, поэтому значения примитивных типов
+ * устанавливаются без упаковки.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+final class BeanBinder {
+
+    private static final ClassValue<ConcurrentHashMap<ParsedSqlCache.Key, BeanBinder>> BINDERS = new ClassValue<ConcurrentHashMap<ParsedSqlCache.Key, BeanBinder>>() {
+        @Override
+        protected ConcurrentHashMap<ParsedSqlCache.Key, BeanBinder> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<ParsedSqlCache.Key, BeanBinder>();
+        }
+    };
+
+    private final Accessor[] accessors;
+
+    private BeanBinder(Accessor[] accessors) {
+        this.accessors = accessors;
+    }
+
+    /**
+     * Возвращает план установки значений для класса и запроса
+     *
+     * @param type Класс объекта
+     * @param parsedSql Результат разбора запроса
+     * @return
+     * @throws UnknownParameterException Если для параметра нет метода чтения
+     * значения
+     */
+    static BeanBinder forClass(Class<?> type, ParsedNamedSql parsedSql) throws UnknownParameterException {
+        ConcurrentHashMap<ParsedSqlCache.Key, BeanBinder> binders = BINDERS.get(type);
+        ParsedSqlCache.Key key = new ParsedSqlCache.Key(parsedSql.getSql(), parsedSql.getSyntax());
+        BeanBinder binder = binders.get(key);
+        if (binder == null) {
+            binder = create(type, parsedSql);
+            BeanBinder existing = binders.putIfAbsent(key, binder);
+            if (existing != null) {
+                binder = existing;
+            }
+        }
+        return binder;
+    }
+
+    private static BeanBinder create(Class<?> type, ParsedNamedSql parsedSql) throws UnknownParameterException {
+        Accessor[] accessors = new Accessor[parsedSql.getParamCount()];
+        for (int i = 0; i < accessors.length; i++) {
+            String paramName = parsedSql.getParamName(i);
+            Method getter = findGetter(type, paramName);
+            if (getter == null) {
+                throw new UnknownParameterException("No accessor for parameter " + paramName + " in " + type.getName());
+            }
+            accessors[i] = createAccessor(getter);
+        }
+        return new BeanBinder(accessors);
+    }
+
+    /**
+     * Устанавливает значения всех параметров запроса из свойств объекта
+     *
+     * @param pstmt Запрос
+     * @param parsedSql Результат разбора запроса
+     * @param bean Объект
+     * @throws SQLException
+     */
+    void bind(PreparedStatement pstmt, ParsedNamedSql parsedSql, Object bean) throws SQLException {
+        try {
+            for (int i = 0; i < accessors.length; i++) {
+                accessors[i].bind(pstmt, parsedSql.getParamIndexes(i), bean);
+            }
+        } catch (SQLException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new SQLException(ex);
+        }
+    }
+
+    /**
+     * Поиск метода чтения значения параметра (без учёта регистра имени)
+     */
+    private static Method findGetter(Class<?> type, String paramName) {
+        Method plain = null;
+        for (Method method : type.getMethods()) {
+            if (method.getParameterTypes().length != 0 || method.getReturnType() == void.class
+                    || Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            if (name.length() == paramName.length() + 3 && name.startsWith("get") && name.regionMatches(true, 3, paramName, 0, paramName.length())) {
+                return method;
+            }
+            if (name.length() == paramName.length() + 2 && name.startsWith("is") && name.regionMatches(true, 2, paramName, 0, paramName.length())
+                    && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                return method;
+            }
+            if (name.equalsIgnoreCase(paramName)) {
+                plain = method;
+            }
+        }
+        return plain;
+    }
+
+    private static Accessor createAccessor(Method getter) {
+        MethodHandle handle;
+        try {
+            try {
+                getter.setAccessible(true);
+            } catch (RuntimeException ex) {
+                /*Доступ через публичный интерфейс класса*/
+            }
+            handle = MethodHandles.lookup().unreflect(getter);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+        Class<?> type = getter.getReturnType();
+        handle = handle.asType(MethodType.methodType(type.isPrimitive() ? type : Object.class, Object.class));
+        if (type == int.class) {
+            return new IntAccessor(handle);
+        } else if (type == long.class) {
+            return new LongAccessor(handle);
+        } else if (type == double.class) {
+            return new DoubleAccessor(handle);
+        } else if (type == float.class) {
+            return new FloatAccessor(handle);
+        } else if (type == short.class) {
+            return new ShortAccessor(handle);
+        } else if (type == byte.class) {
+            return new ByteAccessor(handle);
+        } else if (type == boolean.class) {
+            return new BooleanAccessor(handle);
+        } else if (type == char.class) {
+            return new CharAccessor(handle);
+        }
+        return new ObjectAccessor(handle, Modifier.isFinal(type.getModifiers()) ? ValueBinder.forClass(type) : null);
+    }
+
+    /**
+     * Чтение значения параметра из объекта и установка его в запрос
+     */
+    private abstract static class Accessor {
+
+        final MethodHandle getter;
+
+        Accessor(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        abstract void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable;
+    }
+
+    private static final class IntAccessor extends Accessor {
+
+        IntAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            int value = (int) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setInt(index, value);
+            }
+        }
+    }
+
+    private static final class LongAccessor extends Accessor {
+
+        LongAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            long value = (long) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setLong(index, value);
+            }
+        }
+    }
+
+    private static final class DoubleAccessor extends Accessor {
+
+        DoubleAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            double value = (double) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setDouble(index, value);
+            }
+        }
+    }
+
+    private static final class FloatAccessor extends Accessor {
+
+        FloatAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            float value = (float) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setFloat(index, value);
+            }
+        }
+    }
+
+    private static final class ShortAccessor extends Accessor {
+
+        ShortAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            short value = (short) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setShort(index, value);
+            }
+        }
+    }
+
+    private static final class ByteAccessor extends Accessor {
+
+        ByteAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            byte value = (byte) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setByte(index, value);
+            }
+        }
+    }
+
+    private static final class BooleanAccessor extends Accessor {
+
+        BooleanAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            boolean value = (boolean) getter.invokeExact(bean);
+            for (int index : indexes) {
+                pstmt.setBoolean(index, value);
+            }
+        }
+    }
+
+    private static final class CharAccessor extends Accessor {
+
+        CharAccessor(MethodHandle getter) {
+            super(getter);
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            String value = String.valueOf((char) getter.invokeExact(bean));
+            for (int index : indexes) {
+                pstmt.setString(index, value);
+            }
+        }
+    }
+
+    /**
+     * Значение ссылочного типа. Для final классов сеттер выбирается заранее по
+     * объявленному типу, для остальных - по классу значения.
+     */
+    private static final class ObjectAccessor extends Accessor {
+
+        private final ValueBinder binder;
+
+        ObjectAccessor(MethodHandle getter, ValueBinder binder) {
+            super(getter);
+            this.binder = binder;
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int[] indexes, Object bean) throws Throwable {
+            Object value = (Object) getter.invokeExact(bean);
+            if (binder != null) {
+                binder.bind(pstmt, indexes, value);
+            } else {
+                ValueBinder.bindValue(pstmt, indexes, value);
+            }
+        }
+    }
+}
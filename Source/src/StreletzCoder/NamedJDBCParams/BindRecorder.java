@@ -0,0 +1,81 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+/**
+ * Запоминание значений, устанавливаемых анонимным параметрам запроса, для
+ * трассировки. Запрос заменяется посредником, который сохраняет значение
+ * каждого вызова setXxx(index, value, ...) в массиве по индексу параметра и
+ * передаёт вызов исходному запросу.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+final class BindRecorder implements InvocationHandler {
+
+    private final PreparedStatement statement;
+    private final PreparedStatement proxy;
+    private final Object[] values;
+
+    /**
+     * Конструктор
+     *
+     * @param statement Запрос
+     * @param shape Вариант запроса
+     */
+    BindRecorder(PreparedStatement statement, ParsedNamedSql shape) {
+        int count = 0;
+        for (int i = 0; i < shape.getParamCount(); i++) {
+            for (int index : shape.getParamIndexes(i)) {
+                count = Math.max(count, index);
+            }
+        }
+        this.statement = statement;
+        this.values = new Object[count];
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+        this.proxy = (PreparedStatement) Proxy.newProxyInstance(BindRecorder.class.getClassLoader(),
+                new Class<?>[]{type}, this);
+    }
+
+    /**
+     * Возвращает запрос, запоминающий значения параметров
+     *
+     * @return
+     */
+    PreparedStatement getStatement() {
+        return proxy;
+    }
+
+    /**
+     * Возвращает последнее установленное значение анонимного параметра
+     *
+     * @param index Индекс параметра (начиная с 1)
+     * @return
+     */
+    Object getValue(int index) {
+        return index <= values.length ? values[index - 1] : null;
+    }
+
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (args != null && args.length >= 2 && args[0] instanceof Integer && name.startsWith("set")) {
+            int index = (Integer) args[0];
+            if (index >= 1 && index <= values.length) {
+                values[index - 1] = name.equals("setNull") ? null : args[1];
+            }
+        } else if (name.equals("clearParameters")) {
+            Arrays.fill(values, null);
+        }
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
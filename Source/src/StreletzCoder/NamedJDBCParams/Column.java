@@ -0,0 +1,162 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Столбец значений одного типа, хранящихся в массивах примитивного типа.
+ * Память выделяется блоками фиксированного размера, поэтому рост столбца не
+ * требует копирования ранее записанных значений. Признаки NULL хранятся в
+ * битовых масках.
+ *
+ * Чтение столбца допускается из любого числа потоков после завершения
+ * записи.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public abstract class Column {
+
+    static final int CHUNK_SHIFT = 13;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private long[][] nullChunks = new long[0][];
+    private int size;
+
+    Column() {
+    }
+
+    /**
+     * Возвращает число значений в столбце
+     *
+     * @return
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, является ли значение NULL
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return
+     */
+    public final boolean isNull(int row) {
+        checkRow(row);
+        return (nullChunks[row >>> CHUNK_SHIFT][(row & CHUNK_MASK) >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Возвращает значение в виде объекта
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return Значение либо null
+     */
+    public abstract Object getObject(int row);
+
+    /**
+     * Устанавливает значение параметра запроса из строки столбца
+     *
+     * @param statement Запрос
+     * @param indexes Индексы вхождений параметра
+     * @param row Номер строки
+     * @throws SQLException
+     */
+    abstract void bind(PreparedStatement statement, int[] indexes, int row) throws SQLException;
+
+    /**
+     * Записывает в строку значение столбца текущей строки результатов запроса
+     *
+     * @param rs Результаты запроса
+     * @param index Индекс столбца результатов (начиная с 1)
+     * @param row Номер строки
+     * @throws SQLException
+     */
+    abstract void read(ResultSet rs, int index, int row) throws SQLException;
+
+    /**
+     * Записывает в строку значение, соответствующее NULL
+     *
+     * @param row Номер строки
+     */
+    abstract void resetValue(int row);
+
+    /**
+     * Создаёт блок значений
+     *
+     * @param chunk Номер блока
+     */
+    abstract void allocateChunk(int chunk);
+
+    /**
+     * Увеличивает число блоков значений
+     *
+     * @param count Новое число блоков
+     */
+    abstract void growChunks(int count);
+
+    /**
+     * Записывает NULL в строку
+     *
+     * @param row Номер строки
+     */
+    final void setNull(int row) {
+        ensure(row);
+        nullChunks[row >>> CHUNK_SHIFT][(row & CHUNK_MASK) >>> 6] |= 1L << row;
+        resetValue(row);
+    }
+
+    /**
+     * Записывает NULL в строки диапазона
+     *
+     * @param from Первая строка
+     * @param to Строка, следующая за последней
+     */
+    final void setNull(int from, int to) {
+        for (int row = from; row < to; row++) {
+            setNull(row);
+        }
+    }
+
+    /**
+     * Подготавливает строку к записи значения, отличного от NULL
+     *
+     * @param row Номер строки
+     */
+    final void setNotNull(int row) {
+        ensure(row);
+        nullChunks[row >>> CHUNK_SHIFT][(row & CHUNK_MASK) >>> 6] &= ~(1L << row);
+    }
+
+    /**
+     * Удаляет все значения; выделенная память сохраняется для повторного
+     * использования
+     */
+    void clear() {
+        size = 0;
+    }
+
+    final void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+        }
+    }
+
+    private void ensure(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        if (chunk >= nullChunks.length) {
+            int count = Math.max(chunk + 1, nullChunks.length * 2);
+            nullChunks = Arrays.copyOf(nullChunks, count);
+            growChunks(count);
+        }
+        if (nullChunks[chunk] == null) {
+            nullChunks[chunk] = new long[CHUNK_SIZE >>> 6];
+            allocateChunk(chunk);
+        }
+        if (row >= size) {
+            size = row + 1;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package StreletzCoder.NamedJDBCParams;
+
+/**
+ * Обработка столбца результатов запроса, прочитанных по столбцам
+ * ({@link ColumnarResult#mapColumns(ColumnMapper, boolean)})
+ *
+ * @param <R> Тип результата обработки
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface ColumnMapper<R> {
+
+    /**
+     * Обрабатывает столбец. При параллельной обработке метод вызывается
+     * одновременно для разных столбцов.
+     *
+     * @param label Имя столбца
+     * @param column Столбец
+     * @return Результат обработки
+     */
+    R map(String label, Column column);
+}
@@ -0,0 +1,221 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Результаты запроса, прочитанные по столбцам. Значения целочисленных
+ * столбцов и столбцов с плавающей точкой хранятся в массивах примитивных
+ * типов ({@link IntColumn}, {@link LongColumn}, {@link DoubleColumn}),
+ * строковых - со словарным кодированием ({@link StringColumn}), остальных -
+ * в виде объектов ({@link ObjectColumn}); признаки NULL хранятся в битовых
+ * масках. Память выделяется блоками по мере чтения строк.
+ *
+ * Объект не изменяется после чтения и может использоваться любым числом
+ * потоков.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ColumnarResult {
+
+    private final ResultColumns resultColumns;
+    private final Column[] columns;
+    private final int rowCount;
+
+    private ColumnarResult(ResultColumns resultColumns, Column[] columns, int rowCount) {
+        this.resultColumns = resultColumns;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Читает все строки результатов запроса. Результаты запроса не
+     * закрываются.
+     *
+     * @param rs Результаты запроса
+     * @return
+     * @throws SQLException
+     */
+    public static ColumnarResult read(ResultSet rs) throws SQLException {
+        ResultColumns resultColumns = new ResultColumns(rs);
+        Column[] columns = new Column[resultColumns.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(resultColumns.getType(i + 1));
+        }
+        int row = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(rs, i + 1, row);
+            }
+            row++;
+        }
+        return new ColumnarResult(resultColumns, columns, row);
+    }
+
+    /**
+     * Создаёт столбец для типа SQL
+     *
+     * @param sqlType Тип SQL (java.sql.Types)
+     * @return
+     */
+    private static Column createColumn(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return new IntColumn();
+            case Types.BIGINT:
+                return new LongColumn();
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleColumn();
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringColumn();
+            default:
+                return new ObjectColumn();
+        }
+    }
+
+    /**
+     * Возвращает число строк
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Возвращает число столбцов
+     *
+     * @return
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Возвращает имя столбца
+     *
+     * @param index Индекс столбца (начиная с 1)
+     * @return
+     */
+    public String getLabel(int index) {
+        return resultColumns.getLabel(index);
+    }
+
+    /**
+     * Возвращает столбец по индексу
+     *
+     * @param index Индекс столбца (начиная с 1)
+     * @return
+     */
+    public Column getColumn(int index) {
+        return columns[index - 1];
+    }
+
+    /**
+     * Возвращает столбец по имени без учёта регистра
+     *
+     * @param label Имя столбца
+     * @return
+     */
+    public Column getColumn(String label) {
+        int index = resultColumns.indexOf(label);
+        if (index == 0) {
+            throw new IllegalArgumentException("Unknown column: " + label);
+        }
+        return columns[index - 1];
+    }
+
+    /**
+     * Возвращает столбец типа INTEGER (а также TINYINT и SMALLINT)
+     *
+     * @param label Имя столбца
+     * @return
+     */
+    public IntColumn getIntColumn(String label) {
+        return getColumn(label, IntColumn.class);
+    }
+
+    /**
+     * Возвращает столбец типа BIGINT
+     *
+     * @param label Имя столбца
+     * @return
+     */
+    public LongColumn getLongColumn(String label) {
+        return getColumn(label, LongColumn.class);
+    }
+
+    /**
+     * Возвращает столбец типа DOUBLE (а также REAL и FLOAT)
+     *
+     * @param label Имя столбца
+     * @return
+     */
+    public DoubleColumn getDoubleColumn(String label) {
+        return getColumn(label, DoubleColumn.class);
+    }
+
+    /**
+     * Возвращает строковый столбец
+     *
+     * @param label Имя столбца
+     * @return
+     */
+    public StringColumn getStringColumn(String label) {
+        return getColumn(label, StringColumn.class);
+    }
+
+    /**
+     * Обрабатывает каждый столбец, при необходимости параллельно (в общем
+     * пуле потоков ForkJoinPool)
+     *
+     * @param <R> Тип результата обработки
+     * @param mapper Обработка столбца
+     * @param parallel Обрабатывать ли столбцы параллельно
+     * @return Результаты обработки в порядке столбцов
+     */
+    public <R> List<R> mapColumns(final ColumnMapper<R> mapper, boolean parallel) {
+        IntStream indexes = IntStream.range(0, columns.length);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        return indexes.mapToObj(new IntFunction<R>() {
+            @Override
+            public R apply(int i) {
+                return mapper.map(resultColumns.getLabel(i + 1), columns[i]);
+            }
+        }).collect(Collectors.<R>toList());
+    }
+
+    @Override
+    public String toString() {
+        String[] labels = new String[columns.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = resultColumns.getLabel(i + 1);
+        }
+        return "ColumnarResult" + Arrays.toString(labels) + ", rows: " + rowCount;
+    }
+
+    private <C extends Column> C getColumn(String label, Class<C> type) {
+        Column column = getColumn(label);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("Column " + label + " is read as " + column.getClass().getSimpleName());
+        }
+        return type.cast(column);
+    }
+}
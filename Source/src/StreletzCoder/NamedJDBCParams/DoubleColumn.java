@@ -0,0 +1,86 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Столбец значений типа DOUBLE
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class DoubleColumn extends Column {
+
+    private double[][] chunks = new double[0][];
+
+    DoubleColumn() {
+    }
+
+    /**
+     * Возвращает значение (0 для NULL)
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return
+     */
+    public double getDouble(int row) {
+        checkRow(row);
+        return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isNull(row) ? null : getDouble(row);
+    }
+
+    /**
+     * Записывает значение в строку
+     *
+     * @param row Номер строки
+     * @param value Значение
+     */
+    void set(int row, double value) {
+        setNotNull(row);
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+    }
+
+    @Override
+    void bind(PreparedStatement statement, int[] indexes, int row) throws SQLException {
+        if (isNull(row)) {
+            for (int index : indexes) {
+                statement.setNull(index, Types.DOUBLE);
+            }
+            return;
+        }
+        double value = chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        for (int index : indexes) {
+            statement.setDouble(index, value);
+        }
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException {
+        double value = rs.getDouble(index);
+        if (rs.wasNull()) {
+            setNull(row);
+        } else {
+            set(row, value);
+        }
+    }
+
+    @Override
+    void resetValue(int row) {
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = 0;
+    }
+
+    @Override
+    void allocateChunk(int chunk) {
+        chunks[chunk] = new double[CHUNK_SIZE];
+    }
+
+    @Override
+    void growChunks(int count) {
+        chunks = Arrays.copyOf(chunks, count);
+    }
+}
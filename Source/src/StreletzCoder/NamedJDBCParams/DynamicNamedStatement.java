@@ -0,0 +1,132 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Параметрический SQL запрос с необязательными фрагментами
+ * ({@link DynamicSql}) на одном соединении. Каждый вариант запроса
+ * подготавливается при первом использовании и используется повторно, поэтому
+ * число подготовленных запросов ограничено числом различных наборов
+ * включённых фрагментов.
+ *
+ * Пример использования:
+ * <pre>
+ * try (DynamicNamedStatement stmt = SEARCH.prepare(connection)) {
+ *     ResultSet rs = stmt.bind(filters).executeQuery();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class DynamicNamedStatement implements AutoCloseable {
+
+    private final Connection con;
+    private final DynamicSql dynamicSql;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final IdentityHashMap<ParsedNamedSql, NamedPreparedStatement> statements = new IdentityHashMap<ParsedNamedSql, NamedPreparedStatement>();
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param dynamicSql Запрос с необязательными фрагментами
+     */
+    public DynamicNamedStatement(Connection connection, DynamicSql dynamicSql) {
+        this(connection, dynamicSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param dynamicSql Запрос с необязательными фрагментами
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     */
+    public DynamicNamedStatement(Connection connection, DynamicSql dynamicSql, int resultSetType, int resultSetConcurrency) {
+        con = connection;
+        this.dynamicSql = dynamicSql;
+        this.resultSetType = resultSetType;
+        this.resultSetConcurrency = resultSetConcurrency;
+    }
+
+    /**
+     * Возвращает запрос с необязательными фрагментами
+     *
+     * @return
+     */
+    public DynamicSql getDynamicSql() {
+        return dynamicSql;
+    }
+
+    /**
+     * Выбирает вариант запроса по значениям параметров и устанавливает
+     * значения параметров этого варианта. Значения параметров невключённых
+     * фрагментов не используются.
+     *
+     * @param values Значения параметров
+     * @return Подготовленный вариант запроса
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если не
+     * задано значение параметра вне необязательных фрагментов
+     */
+    public NamedPreparedStatement bind(Map<String, ?> values) throws SQLException, UnknownParameterException {
+        ParsedNamedSql variant = dynamicSql.getVariant(values);
+        NamedPreparedStatement statement = statements.get(variant);
+        if (statement == null) {
+            statement = new NamedPreparedStatement(con, variant, resultSetType, resultSetConcurrency);
+            statements.put(variant, statement);
+        }
+        Map<String, Object> variantValues = new HashMap<String, Object>();
+        for (int i = 0; i < variant.getParamCount(); i++) {
+            String paramName = variant.getParamName(i);
+            if (values.containsKey(paramName)) {
+                variantValues.put(paramName, values.get(paramName));
+            }
+        }
+        statement.setParameters(variantValues);
+        return statement;
+    }
+
+    /**
+     * Возвращает число подготовленных вариантов запроса
+     *
+     * @return
+     */
+    public int getPreparedCount() {
+        return statements.size();
+    }
+
+    /**
+     * Закрывает все подготовленные варианты запроса
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException error = null;
+        for (NamedPreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        statements.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+}
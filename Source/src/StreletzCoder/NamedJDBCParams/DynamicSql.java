@@ -0,0 +1,182 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Параметрический SQL запрос с необязательными фрагментами вида
+ * <code>/*[ AND status = :status ]*&#47;</code>. Фрагмент включается в
+ * запрос, только если значения всех его параметров заданы и отличны от
+ * null; фрагмент без параметров включается всегда. Вложенные фрагменты не
+ * поддерживаются.
+ *
+ * Для каждого набора включённых фрагментов запрос разбирается один раз;
+ * результаты разбора кэшируются по битовой маске включённых фрагментов.
+ * Объект неизменяемый и может совместно использоваться любым числом потоков,
+ * поэтому его следует создавать один раз (например, как статическую
+ * константу).
+ *
+ * Пример использования:
+ * <pre>
+ * static final DynamicSql SEARCH = DynamicSql.parse("SELECT * FROM users WHERE 1 = 1"
+ *         + " /*[ AND status = :status ]*&#47; /*[ AND name LIKE :name ]*&#47;");
+ * </pre>
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class DynamicSql {
+
+    /**
+     * Максимальное число необязательных фрагментов в запросе
+     */
+    public static final int MAX_FRAGMENTS = 64;
+
+    private final String sql;
+    private final ParamSyntax syntax;
+    private final String[] texts;
+    private final String[] fragments;
+    private final String[][] fragmentParams;
+    private final ConcurrentHashMap<Long, ParsedNamedSql> variants = new ConcurrentHashMap<Long, ParsedNamedSql>();
+
+    private DynamicSql(String sql, ParamSyntax syntax) {
+        this.sql = sql;
+        this.syntax = syntax;
+        List<int[]> bounds = SqlLexer.findFragments(sql);
+        if (bounds.size() > MAX_FRAGMENTS) {
+            throw new IllegalArgumentException("More than " + MAX_FRAGMENTS + " optional fragments: " + sql);
+        }
+        texts = new String[bounds.size() + 1];
+        fragments = new String[bounds.size()];
+        fragmentParams = new String[bounds.size()][];
+        int copied = 0;
+        for (int i = 0; i < bounds.size(); i++) {
+            int[] fragment = bounds.get(i);
+            texts[i] = sql.substring(copied, fragment[0]);
+            fragments[i] = sql.substring(fragment[1], fragment[2]);
+            ArrayList<String> names = new ArrayList<String>();
+            SqlLexer.convert(fragments[i], syntax, names);
+            LinkedHashSet<String> distinct = new LinkedHashSet<String>(names);
+            fragmentParams[i] = distinct.toArray(new String[distinct.size()]);
+            copied = fragment[3];
+        }
+        texts[bounds.size()] = sql.substring(copied);
+    }
+
+    /**
+     * Разбирает запрос с параметрами вида :name
+     *
+     * @param sql Параметрический SQL запрос с необязательными фрагментами
+     * @return
+     */
+    public static DynamicSql parse(String sql) {
+        return parse(sql, ParamSyntax.COLON);
+    }
+
+    /**
+     * Разбирает запрос
+     *
+     * @param sql Параметрический SQL запрос с необязательными фрагментами
+     * @param syntax Синтаксис параметров
+     * @return
+     */
+    public static DynamicSql parse(String sql, ParamSyntax syntax) {
+        return new DynamicSql(sql, syntax);
+    }
+
+    /**
+     * Возвращает исходный запрос
+     *
+     * @return
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Возвращает синтаксис параметров запроса
+     *
+     * @return
+     */
+    public ParamSyntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Возвращает число необязательных фрагментов
+     *
+     * @return
+     */
+    public int getFragmentCount() {
+        return fragments.length;
+    }
+
+    /**
+     * Возвращает вариант запроса для значений параметров: включаются
+     * фрагменты, значения всех параметров которых заданы и отличны от null
+     *
+     * @param values Значения параметров
+     * @return Результат разбора варианта запроса
+     */
+    public ParsedNamedSql getVariant(Map<String, ?> values) {
+        return getVariant(getMask(values));
+    }
+
+    /**
+     * Подготавливает запрос на соединении
+     *
+     * @param connection Соединение с базой данных
+     * @return
+     */
+    public DynamicNamedStatement prepare(Connection connection) {
+        return new DynamicNamedStatement(connection, this);
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    /**
+     * Вычисляет битовую маску включаемых фрагментов
+     */
+    private long getMask(Map<String, ?> values) {
+        long mask = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            boolean included = true;
+            for (String param : fragmentParams[i]) {
+                if (values.get(param) == null) {
+                    included = false;
+                    break;
+                }
+            }
+            if (included) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private ParsedNamedSql getVariant(long mask) {
+        ParsedNamedSql variant = variants.get(mask);
+        if (variant == null) {
+            StringBuilder text = new StringBuilder(sql.length());
+            for (int i = 0; i < fragments.length; i++) {
+                text.append(texts[i]);
+                if ((mask & (1L << i)) != 0) {
+                    text.append(fragments[i]);
+                }
+            }
+            text.append(texts[fragments.length]);
+            variant = ParsedNamedSql.parse(text.toString(), syntax);
+            ParsedNamedSql existing = variants.putIfAbsent(mask, variant);
+            if (existing != null) {
+                variant = existing;
+            }
+        }
+        return variant;
+    }
+}
@@ -0,0 +1,61 @@
+package StreletzCoder.NamedJDBCParams;
+
+/**
+ * Получатель сведений о выполнении параметрических запросов. Вызывается
+ * только при включённом сборе метрик ({@link ExecutionMetrics#setEnabled})
+ * в потоке, выполняющем запрос, поэтому должен работать быстро и не бросать
+ * исключений. Длительности передаются в наносекундах.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface ExecutionListener {
+
+    /**
+     * Запрос подготовлен
+     *
+     * @param sql Параметрический SQL запрос
+     * @param nanos Длительность подготовки
+     */
+    default void prepared(String sql, long nanos) {
+    }
+
+    /**
+     * Установлены значения параметров (из Map или объекта)
+     *
+     * @param sql Параметрический SQL запрос
+     * @param nanos Длительность установки значений
+     */
+    default void bound(String sql, long nanos) {
+    }
+
+    /**
+     * Запрос выполнен
+     *
+     * @param sql Параметрический SQL запрос
+     * @param nanos Длительность выполнения
+     * @param rows Число обработанных записей (-1 для запроса на выборку)
+     */
+    default void executed(String sql, long nanos, long rows) {
+    }
+
+    /**
+     * Пакет выполнен
+     *
+     * @param sql Параметрический SQL запрос
+     * @param nanos Длительность выполнения
+     * @param batchSize Число строк пакета
+     * @param rows Число обработанных записей
+     */
+    default void batchExecuted(String sql, long nanos, int batchSize, long rows) {
+    }
+
+    /**
+     * Выполнение завершилось ошибкой
+     *
+     * @param sql Параметрический SQL запрос
+     * @param nanos Длительность до возникновения ошибки
+     * @param error Ошибка
+     */
+    default void failed(String sql, long nanos, Throwable error) {
+    }
+}
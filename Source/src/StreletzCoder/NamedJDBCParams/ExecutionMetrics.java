@@ -0,0 +1,264 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Сбор метрик выполнения параметрических запросов: длительности подготовки,
+ * установки значений параметров и выполнения, размеры пакетов и число
+ * обработанных записей для каждого запроса. По умолчанию сбор отключён; в
+ * этом случае затраты ограничиваются чтением одного признака на операцию.
+ * Метрики доступны через {@link #getStatistics()}, получателей
+ * {@link ExecutionListener} и JMX.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ExecutionMetrics {
+
+    /**
+     * Наибольшее число запросов, для которых статистика собирается
+     * отдельно; статистика остальных объединяется под именем "*"
+     */
+    public static final int MAX_STATEMENTS = 1024;
+
+    /**
+     * Имя, под которым регистрируется JMX-объект
+     */
+    public static final String OBJECT_NAME = "StreletzCoder.NamedJDBCParams:type=ExecutionMetrics";
+
+    static final long DISABLED = Long.MIN_VALUE;
+    private static final String OTHER = "*";
+
+    private static volatile boolean enabled;
+    private static final ConcurrentHashMap<String, SqlStatistics> STATISTICS = new ConcurrentHashMap<String, SqlStatistics>();
+    private static final CopyOnWriteArrayList<ExecutionListener> LISTENERS = new CopyOnWriteArrayList<ExecutionListener>();
+
+    private ExecutionMetrics() {
+    }
+
+    /**
+     * Включает или отключает сбор метрик
+     *
+     * @param enabled Признак сбора метрик
+     */
+    public static void setEnabled(boolean enabled) {
+        ExecutionMetrics.enabled = enabled;
+    }
+
+    /**
+     * Проверяет, включён ли сбор метрик
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Добавляет получателя сведений о выполнении запросов
+     *
+     * @param listener Получатель
+     */
+    public static void addListener(ExecutionListener listener) {
+        LISTENERS.addIfAbsent(listener);
+    }
+
+    /**
+     * Удаляет получателя сведений о выполнении запросов
+     *
+     * @param listener Получатель
+     */
+    public static void removeListener(ExecutionListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Возвращает статистику запроса
+     *
+     * @param sql Параметрический SQL запрос
+     * @return Статистика либо null, если запрос не выполнялся
+     */
+    public static SqlStatistics getStatistics(String sql) {
+        return STATISTICS.get(sql);
+    }
+
+    /**
+     * Возвращает статистику всех запросов
+     *
+     * @return
+     */
+    public static Collection<SqlStatistics> getStatistics() {
+        return Collections.unmodifiableCollection(STATISTICS.values());
+    }
+
+    /**
+     * Очищает собранную статистику
+     */
+    public static void reset() {
+        STATISTICS.clear();
+    }
+
+    /**
+     * Регистрирует JMX-объект управления метриками в MBeanServer платформы
+     *
+     * @return Имя зарегистрированного объекта
+     * @throws JMException
+     */
+    public static ObjectName registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(new Management(), name);
+        }
+        return name;
+    }
+
+    /**
+     * Удаляет JMX-объект управления метриками из MBeanServer платформы
+     *
+     * @throws JMException
+     */
+    public static void unregisterMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+    }
+
+    /**
+     * Начало измеряемой операции
+     *
+     * @return Время начала либо DISABLED, если сбор метрик отключён
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    static void prepared(String sql, long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        statisticsFor(sql).getPrepareTime().record(nanos);
+        for (ExecutionListener listener : LISTENERS) {
+            try {
+                listener.prepared(sql, nanos);
+            } catch (RuntimeException ex) {
+                /*Ошибка получателя не должна влиять на выполнение запроса*/
+            }
+        }
+    }
+
+    static void bound(String sql, long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        statisticsFor(sql).getBindTime().record(nanos);
+        for (ExecutionListener listener : LISTENERS) {
+            try {
+                listener.bound(sql, nanos);
+            } catch (RuntimeException ex) {
+                /*Ошибка получателя не должна влиять на выполнение запроса*/
+            }
+        }
+    }
+
+    static void executed(String sql, long start, long rows) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        statisticsFor(sql).executed(nanos, rows);
+        for (ExecutionListener listener : LISTENERS) {
+            try {
+                listener.executed(sql, nanos, rows);
+            } catch (RuntimeException ex) {
+                /*Ошибка получателя не должна влиять на выполнение запроса*/
+            }
+        }
+    }
+
+    static void batchExecuted(String sql, long start, int batchSize, long rows) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        statisticsFor(sql).batchExecuted(nanos, batchSize, rows);
+        for (ExecutionListener listener : LISTENERS) {
+            try {
+                listener.batchExecuted(sql, nanos, batchSize, rows);
+            } catch (RuntimeException ex) {
+                /*Ошибка получателя не должна влиять на выполнение запроса*/
+            }
+        }
+    }
+
+    static void failed(String sql, long start, Throwable error) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        statisticsFor(sql).failed(nanos);
+        for (ExecutionListener listener : LISTENERS) {
+            try {
+                listener.failed(sql, nanos, error);
+            } catch (RuntimeException ex) {
+                /*Ошибка получателя не должна влиять на выполнение запроса*/
+            }
+        }
+    }
+
+    private static SqlStatistics statisticsFor(String sql) {
+        SqlStatistics statistics = STATISTICS.get(sql);
+        if (statistics == null) {
+            String key = STATISTICS.size() < MAX_STATEMENTS ? sql : OTHER;
+            statistics = new SqlStatistics(key);
+            SqlStatistics existing = STATISTICS.putIfAbsent(key, statistics);
+            if (existing != null) {
+                statistics = existing;
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * JMX-объект управления метриками
+     */
+    private static final class Management implements ExecutionMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return ExecutionMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            ExecutionMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public int getStatementCount() {
+            return STATISTICS.size();
+        }
+
+        @Override
+        public List<SqlStatistics> getStatistics() {
+            return new ArrayList<SqlStatistics>(STATISTICS.values());
+        }
+
+        @Override
+        public void reset() {
+            ExecutionMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.List;
+
+/**
+ * Интерфейс управления сбором метрик выполнения запросов через JMX
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface ExecutionMetricsMXBean {
+
+    /**
+     * Проверяет, включён ли сбор метрик
+     *
+     * @return
+     */
+    boolean isEnabled();
+
+    /**
+     * Включает или отключает сбор метрик
+     *
+     * @param enabled Признак сбора метрик
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Возвращает число запросов, для которых собрана статистика
+     *
+     * @return
+     */
+    int getStatementCount();
+
+    /**
+     * Возвращает статистику всех запросов
+     *
+     * @return
+     */
+    List<SqlStatistics> getStatistics();
+
+    /**
+     * Очищает собранную статистику
+     */
+    void reset();
+}
@@ -0,0 +1,86 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Столбец значений типа INTEGER
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class IntColumn extends Column {
+
+    private int[][] chunks = new int[0][];
+
+    IntColumn() {
+    }
+
+    /**
+     * Возвращает значение (0 для NULL)
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return
+     */
+    public int getInt(int row) {
+        checkRow(row);
+        return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isNull(row) ? null : getInt(row);
+    }
+
+    /**
+     * Записывает значение в строку
+     *
+     * @param row Номер строки
+     * @param value Значение
+     */
+    void set(int row, int value) {
+        setNotNull(row);
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+    }
+
+    @Override
+    void bind(PreparedStatement statement, int[] indexes, int row) throws SQLException {
+        if (isNull(row)) {
+            for (int index : indexes) {
+                statement.setNull(index, Types.INTEGER);
+            }
+            return;
+        }
+        int value = chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        for (int index : indexes) {
+            statement.setInt(index, value);
+        }
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException {
+        int value = rs.getInt(index);
+        if (rs.wasNull()) {
+            setNull(row);
+        } else {
+            set(row, value);
+        }
+    }
+
+    @Override
+    void resetValue(int row) {
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = 0;
+    }
+
+    @Override
+    void allocateChunk(int chunk) {
+        chunks[chunk] = new int[CHUNK_SIZE];
+    }
+
+    @Override
+    void growChunks(int count) {
+        chunks = Arrays.copyOf(chunks, count);
+    }
+}
@@ -0,0 +1,280 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Массовая вставка строк запросом INSERT ... VALUES (...), ..., (...) с
+ * несколькими строками значений. Параметрический запрос вида
+ * INSERT INTO t (a, b) VALUES (:a, :b) преобразуется в запрос, содержащий
+ * заданное число строк значений; параметры каждой строки устанавливаются по
+ * именам автоматически. Оставшиеся строки вставляются отдельным запросом с
+ * соответствующим числом строк значений.
+ *
+ * Все параметры запроса должны находиться в списке значений строки.
+ * Значения строки копируются при её добавлении. Если вставка завершилась
+ * ошибкой, строки остаются накопленными и вставляются повторно при
+ * следующем вызове {@link #addRow(Map)} либо {@link #flush()}; при закрытии
+ * не вставленные строки отбрасываются. Запросы выполняются через
+ * {@link NamedPreparedStatement}, поэтому на них распространяются метрики
+ * ({@link ExecutionMetrics}) и трассировка ({@link QueryTracer}).
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class MultiRowInsert implements AutoCloseable {
+
+    /**
+     * Число строк значений в одном запросе по умолчанию
+     */
+    public static final int DEFAULT_ROWS_PER_STATEMENT = 100;
+
+    private final Connection con;
+    private final ParsedNamedSql parsedSql;
+    private final String prefix;
+    private final String row;
+    private final String suffix;
+    private final int paramsPerRow;
+    private final int rowsPerStatement;
+    private final Object[][] pending;
+    private int pendingCount;
+    private NamedPreparedStatement statement;
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический запрос INSERT ... VALUES (...)
+     */
+    public MultiRowInsert(Connection connection, String sql) {
+        this(connection, sql, DEFAULT_ROWS_PER_STATEMENT);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический запрос INSERT ... VALUES (...)
+     * @param rowsPerStatement Число строк значений в одном запросе
+     */
+    public MultiRowInsert(Connection connection, String sql, int rowsPerStatement) {
+        this(connection, sql, ParamSyntax.COLON, rowsPerStatement);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический запрос INSERT ... VALUES (...)
+     * @param syntax Синтаксис параметров
+     */
+    public MultiRowInsert(Connection connection, String sql, ParamSyntax syntax) {
+        this(connection, sql, syntax, DEFAULT_ROWS_PER_STATEMENT);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический запрос INSERT ... VALUES (...)
+     * @param syntax Синтаксис параметров
+     * @param rowsPerStatement Число строк значений в одном запросе
+     */
+    public MultiRowInsert(Connection connection, String sql, ParamSyntax syntax, int rowsPerStatement) {
+        if (rowsPerStatement < 1) {
+            throw new IllegalArgumentException("rowsPerStatement < 1");
+        }
+        int[] bounds = SqlLexer.findValuesRow(sql);
+        if (bounds == null) {
+            throw new IllegalArgumentException("VALUES (...) not found: " + sql);
+        }
+        con = connection;
+        parsedSql = ParsedSqlCache.get(sql, syntax);
+        prefix = sql.substring(0, bounds[0]);
+        row = sql.substring(bounds[0], bounds[1]);
+        suffix = sql.substring(bounds[1]);
+        ArrayList<String> rowNames = new ArrayList<String>();
+        SqlLexer.convert(row, parsedSql.getSyntax(), rowNames);
+        int total = 0;
+        for (int i = 0; i < parsedSql.getParamCount(); i++) {
+            total += parsedSql.getParamIndexes(i).length;
+        }
+        if (rowNames.size() != total) {
+            throw new IllegalArgumentException("All parameters must be inside VALUES (...): " + sql);
+        }
+        paramsPerRow = total;
+        this.rowsPerStatement = rowsPerStatement;
+        pending = new Object[rowsPerStatement][parsedSql.getParamCount()];
+    }
+
+    /**
+     * Добавляет строку для вставки. По мере накопления заданного числа строк
+     * они вставляются одним запросом. Если предыдущая вставка завершилась
+     * ошибкой, накопленные строки сначала вставляются повторно.
+     *
+     * @param values Значения параметров строки
+     * @return Число вставленных записей (0, если строка только добавлена)
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если
+     * значения заданы не для всех параметров запроса либо заданы для
+     * отсутствующих в нём параметров (в сообщении перечисляются все такие
+     * параметры)
+     */
+    public long addRow(Map<String, ?> values) throws SQLException, UnknownParameterException {
+        long total = 0;
+        if (pendingCount == rowsPerStatement) {
+            total = executePending();
+        }
+        Object[] rowValues = pending[pendingCount];
+        List<String> missing = null;
+        int found = 0;
+        for (int i = 0; i < rowValues.length; i++) {
+            String paramName = parsedSql.getParamName(i);
+            Object value = values.get(paramName);
+            if (value == null && !values.containsKey(paramName)) {
+                if (missing == null) {
+                    missing = new ArrayList<String>();
+                }
+                missing.add(paramName);
+                continue;
+            }
+            found++;
+            rowValues[i] = value;
+        }
+        if (missing != null || found < values.size()) {
+            Arrays.fill(rowValues, null);
+            List<String> unknown = new ArrayList<String>();
+            for (String paramName : values.keySet()) {
+                if (!parsedSql.getParamsMap().containsKey(paramName)) {
+                    unknown.add(paramName);
+                }
+            }
+            throw new UnknownParameterException("Missing parameters: " + (missing == null ? "[]" : missing) + ", unknown parameters: " + unknown);
+        }
+        if (++pendingCount < rowsPerStatement) {
+            return total;
+        }
+        return total + executePending();
+    }
+
+    /**
+     * Возвращает число накопленных, но ещё не вставленных строк
+     *
+     * @return
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Вставляет все строки, включая оставшиеся после предыдущих вызовов
+     * {@link #addRow(Map)}
+     *
+     * @param rows Строки для вставки
+     * @return Число вставленных записей
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если
+     * значения параметров строки заданы неверно
+     */
+    public long executeInsert(Iterable<? extends Map<String, ?>> rows) throws SQLException, UnknownParameterException {
+        long total = 0;
+        for (Map<String, ?> values : rows) {
+            total += addRow(values);
+        }
+        return total + flush();
+    }
+
+    /**
+     * Вставляет оставшиеся строки запросом с соответствующим числом строк
+     * значений
+     *
+     * @return Число вставленных записей
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public long flush() throws SQLException, UnknownParameterException {
+        if (pendingCount == 0) {
+            return 0;
+        }
+        return executePending();
+    }
+
+    /**
+     * Закрывает запрос. Не вставленные строки отбрасываются.
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        clearPending();
+        if (statement != null) {
+            statement.close();
+            statement = null;
+        }
+    }
+
+    /**
+     * Подготавливает запрос с указанным числом строк значений
+     */
+    private NamedPreparedStatement prepare(int rows) throws SQLException {
+        StringBuilder sql = new StringBuilder(prefix.length() + (row.length() + 2) * rows + suffix.length());
+        sql.append(prefix).append(row);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(row);
+        }
+        sql.append(suffix);
+        return new NamedPreparedStatement(con, ParsedNamedSql.parse(sql.toString(), parsedSql.getSyntax()));
+    }
+
+    /**
+     * Вставляет накопленные строки запросом с соответствующим числом строк
+     * значений. Строки удаляются только после успешного выполнения.
+     */
+    private long executePending() throws SQLException {
+        if (pendingCount == rowsPerStatement) {
+            if (statement == null) {
+                statement = prepare(rowsPerStatement);
+            }
+            return execute(statement);
+        }
+        NamedPreparedStatement tail = prepare(pendingCount);
+        try {
+            return execute(tail);
+        } finally {
+            tail.close();
+        }
+    }
+
+    /**
+     * Устанавливает значения накопленных строк и выполняет запрос
+     */
+    private long execute(NamedPreparedStatement multiRow) throws SQLException {
+        PreparedStatement pstmt = multiRow.getPreparedStatement();
+        for (int rowNumber = 0; rowNumber < pendingCount; rowNumber++) {
+            int offset = rowNumber * paramsPerRow;
+            Object[] rowValues = pending[rowNumber];
+            for (int i = 0; i < rowValues.length; i++) {
+                for (int index : parsedSql.getParamIndexes(i)) {
+                    ValueBinder.bindValue(pstmt, index + offset, rowValues[i]);
+                }
+            }
+        }
+        long rows = multiRow.executeUpdate();
+        clearPending();
+        return rows;
+    }
+
+    /**
+     * Удаляет накопленные строки, не сохраняя ссылок на их значения
+     */
+    private void clearPending() {
+        for (int i = 0; i < pendingCount; i++) {
+            Arrays.fill(pending[i], null);
+        }
+        pendingCount = 0;
+    }
+}
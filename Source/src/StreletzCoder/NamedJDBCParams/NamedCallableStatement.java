@@ -0,0 +1,422 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Вызов хранимой процедуры с именованными параметрами, например
+ * {call proc(:in, :out)}. Значения входных параметров устанавливаются
+ * так же, как в {@link NamedPreparedStatement}; выходные параметры
+ * регистрируются и читаются по именам.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class NamedCallableStatement extends NamedPreparedStatement {
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический вызов процедуры
+     * @throws SQLException
+     */
+    public NamedCallableStatement(Connection connection, String sql) throws SQLException {
+        super(connection, sql);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический вызов процедуры
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     * @throws SQLException
+     */
+    public NamedCallableStatement(Connection connection, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        super(connection, sql, resultSetType, resultSetConcurrency);
+    }
+
+    /**
+     * Конструктор по заранее разобранному вызову процедуры
+     *
+     * @param connection Соединение с базой данных
+     * @param parsedSql Разобранный параметрический вызов процедуры
+     * @throws SQLException
+     */
+    public NamedCallableStatement(Connection connection, ParsedNamedSql parsedSql) throws SQLException {
+        super(connection, parsedSql);
+    }
+
+    /**
+     * Конструктор по заранее разобранному вызову процедуры
+     *
+     * @param connection Соединение с базой данных
+     * @param parsedSql Разобранный параметрический вызов процедуры
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     * @throws SQLException
+     */
+    public NamedCallableStatement(Connection connection, ParsedNamedSql parsedSql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        super(connection, parsedSql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    PreparedStatement createStatement(Connection connection, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return connection.prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    /**
+     * Возвращает объект CallableStatement
+     *
+     * @return
+     */
+    public CallableStatement getCallableStatement() {
+        return (CallableStatement) getPreparedStatement();
+    }
+
+    /*РЕГИСТРАЦИЯ ВЫХОДНЫХ ПАРАМЕТРОВ*/
+    /**
+     * Регистрирует выходной параметр
+     *
+     * @param paramName Параметр
+     * @param sqlType Тип SQL (java.sql.Types)
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public void registerOutParameter(String paramName, int sqlType) throws SQLException, UnknownParameterException {
+        CallableStatement cstmt = getCallableStatement();
+        for (int index : getParamIndexes(paramName)) {
+            cstmt.registerOutParameter(index, sqlType);
+        }
+    }
+
+    /**
+     * Регистрирует выходной параметр с указанием числа знаков после запятой
+     *
+     * @param paramName Параметр
+     * @param sqlType Тип SQL (java.sql.Types)
+     * @param scale Число знаков после запятой
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public void registerOutParameter(String paramName, int sqlType, int scale) throws SQLException, UnknownParameterException {
+        CallableStatement cstmt = getCallableStatement();
+        for (int index : getParamIndexes(paramName)) {
+            cstmt.registerOutParameter(index, sqlType, scale);
+        }
+    }
+
+    /**
+     * Регистрирует выходной параметр пользовательского типа
+     *
+     * @param paramName Параметр
+     * @param sqlType Тип SQL (java.sql.Types)
+     * @param typeName Полное имя типа SQL
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public void registerOutParameter(String paramName, int sqlType, String typeName) throws SQLException, UnknownParameterException {
+        CallableStatement cstmt = getCallableStatement();
+        for (int index : getParamIndexes(paramName)) {
+            cstmt.registerOutParameter(index, sqlType, typeName);
+        }
+    }
+
+    /**
+     * Регистрирует выходной параметр
+     *
+     * @param paramName Параметр
+     * @param sqlType Тип SQL
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public void registerOutParameter(String paramName, SQLType sqlType) throws SQLException, UnknownParameterException {
+        CallableStatement cstmt = getCallableStatement();
+        for (int index : getParamIndexes(paramName)) {
+            cstmt.registerOutParameter(index, sqlType);
+        }
+    }
+
+    /**
+     * Регистрирует выходной параметр с указанием числа знаков после запятой
+     *
+     * @param paramName Параметр
+     * @param sqlType Тип SQL
+     * @param scale Число знаков после запятой
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public void registerOutParameter(String paramName, SQLType sqlType, int scale) throws SQLException, UnknownParameterException {
+        CallableStatement cstmt = getCallableStatement();
+        for (int index : getParamIndexes(paramName)) {
+            cstmt.registerOutParameter(index, sqlType, scale);
+        }
+    }
+
+    /*ГЕТТЕРЫ ВЫХОДНЫХ ПАРАМЕТРОВ*/
+    /**
+     * Возвращает значение выходного параметра типа ARRAY
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Array getArray(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getArray(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа NUMERIC
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public BigDecimal getBigDecimal(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getBigDecimal(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа BLOB
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Blob getBlob(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getBlob(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа BOOLEAN
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public boolean getBoolean(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getBoolean(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа TINYINT
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public byte getByte(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getByte(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа BINARY или VARBINARY
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public byte[] getBytes(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getBytes(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа CLOB
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Clob getClob(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getClob(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа DATE
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Date getDate(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getDate(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа DOUBLE
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public double getDouble(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getDouble(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа FLOAT
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public float getFloat(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getFloat(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа INTEGER
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public int getInt(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getInt(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа BIGINT
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public long getLong(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getLong(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Object getObject(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getObject(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра, преобразованное к указанному
+     * классу
+     *
+     * @param <T> Тип значения
+     * @param paramName Параметр
+     * @param type Класс значения
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public <T> T getObject(String paramName, Class<T> type) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getObject(getOutIndex(paramName), type);
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа REF CURSOR в виде
+     * результатов запроса (для драйверов, поддерживающих getObject с классом
+     * ResultSet)
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public ResultSet getResultSet(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getObject(getOutIndex(paramName), ResultSet.class);
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа SMALLINT
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public short getShort(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getShort(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа CHAR, VARCHAR или
+     * LONGVARCHAR
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public String getString(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getString(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа TIME
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Time getTime(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getTime(getOutIndex(paramName));
+    }
+
+    /**
+     * Возвращает значение выходного параметра типа TIMESTAMP
+     *
+     * @param paramName Параметр
+     * @return
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public Timestamp getTimestamp(String paramName) throws SQLException, UnknownParameterException {
+        return getCallableStatement().getTimestamp(getOutIndex(paramName));
+    }
+
+    /**
+     * Проверяет, было ли значение последнего прочитанного выходного
+     * параметра равно NULL
+     *
+     * @return
+     * @throws SQLException
+     */
+    public boolean wasNull() throws SQLException {
+        return getCallableStatement().wasNull();
+    }
+
+    /**
+     * Индекс выходного параметра: первое вхождение параметра в вызов
+     */
+    private int getOutIndex(String paramName) throws UnknownParameterException {
+        return findParamIndexes(paramName)[0];
+    }
+}
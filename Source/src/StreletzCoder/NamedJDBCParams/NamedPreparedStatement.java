@@ -19,119 +19,1050 @@ import java.sql.SQLType;
 import java.sql.SQLXML;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
  * @author Streletz, 2016, http://streletzcoder.ru/
  */
-public class NamedPreparedStatement {
+public class NamedPreparedStatement implements AutoCloseable {
 
-    private static final String REGEX = "(:[a-z]+)|(:[A-Z]+)";
-    private static final String REPLACEMENT = "?";
-    private final PreparedStatement pstmt;
-    private final Connection con;    
-    private final HashMap<String, Integer> paramsMap;
+    /**
+     * Число строк пакета по умолчанию, после накопления которых пакет
+     * отправляется на выполнение
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private PreparedStatement pstmt;
+    private PreparedStatement statement;
+    private final Connection con;
+    private final ParsedNamedSql parsedSql;
+    private ParsedNamedSql shape;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final AtomicReference<Object> owner = new AtomicReference<Object>();
+    private Executor executor;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private BindRecorder recorder;
+    private BatchBuffer batchBuffer;
+    private int batchRows;
+    private boolean valuesBound;
+    private Object[][] listValues;
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический SQL запрос
+     * @throws SQLException
+     */
+    public NamedPreparedStatement(Connection connection, String sql) throws SQLException {
+        this(connection, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический SQL запрос
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     * @throws SQLException
+     */
+    public NamedPreparedStatement(Connection connection, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        this(connection, ParsedSqlCache.get(sql), resultSetType, resultSetConcurrency);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param sql Параметрический SQL запрос
+     * @param syntax Синтаксис параметров запроса
+     * @throws SQLException
+     */
+    public NamedPreparedStatement(Connection connection, String sql, ParamSyntax syntax) throws SQLException {
+        this(connection, ParsedSqlCache.get(sql, syntax), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Конструктор по заранее разобранному запросу (без повторного разбора
+     * SQL)
+     *
+     * @param connection Соединение с базой данных
+     * @param parsedSql Разобранный параметрический SQL запрос
+     * @throws SQLException
+     */
+    public NamedPreparedStatement(Connection connection, ParsedNamedSql parsedSql) throws SQLException {
+        this(connection, parsedSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Конструктор по заранее разобранному запросу (без повторного разбора
+     * SQL)
+     *
+     * @param connection Соединение с базой данных
+     * @param parsedSql Разобранный параметрический SQL запрос
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     * @throws SQLException
+     */
+    public NamedPreparedStatement(Connection connection, ParsedNamedSql parsedSql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        con = connection;
+        this.parsedSql = parsedSql.getBase();
+        shape = this.parsedSql;
+        this.resultSetType = resultSetType;
+        this.resultSetConcurrency = resultSetConcurrency;
+        statement = prepare(this.parsedSql);
+        traceNext();
+    }
+
+    /**
+     * Возвращает разобранный параметрический SQL запрос
+     *
+     * @return
+     */
+    public ParsedNamedSql getParsedSql() {
+        return parsedSql;
+    }
+
+    /**
+     * Возвращает объект PreparedStatement. При включённой трассировке для
+     * выполнений, попавших в выборку, возвращается посредник, запоминающий
+     * значения параметров, поэтому объект не следует сохранять между
+     * выполнениями.
+     *
+     * @return
+     */
+    public PreparedStatement getPreparedStatement() {
+        return pstmt;
+    }
+
+    /*Методы-обёртки для часто используемого функционала PreparedStatement чтобы избежать лишней цепочки методов*/
+    /**
+     * Выполнение запроса на выборку
+     *
+     * @return Результаты запросы
+     * @throws SQLException
+     */
+    public ResultSet executeQuery() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        long start = ExecutionMetrics.start();
+        long traceStart = QueryTracer.start(shape, recorder);
+        try {
+            ResultSet rs = statement.executeQuery();
+            ExecutionMetrics.executed(parsedSql.getSql(), start, -1);
+            finishTrace(traceStart, null);
+            return rs;
+        } catch (SQLException ex) {
+            ExecutionMetrics.failed(parsedSql.getSql(), start, ex);
+            finishTrace(traceStart, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Выполнение запроса не предусматривающего возврат данных
+     *
+     * @return Результат выполнения запроса
+     * @throws SQLException
+     */
+    public boolean execute() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        long start = ExecutionMetrics.start();
+        long traceStart = QueryTracer.start(shape, recorder);
+        try {
+            boolean result = statement.execute();
+            ExecutionMetrics.executed(parsedSql.getSql(), start, -1);
+            finishTrace(traceStart, null);
+            return result;
+        } catch (SQLException ex) {
+            ExecutionMetrics.failed(parsedSql.getSql(), start, ex);
+            finishTrace(traceStart, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Выполнение запроса на изменение данных
+     *
+     * @return Число обработанных записей
+     * @throws SQLException
+     */
+    public int executeUpdate() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        long start = ExecutionMetrics.start();
+        long traceStart = QueryTracer.start(shape, recorder);
+        try {
+            int rows = statement.executeUpdate();
+            ExecutionMetrics.executed(parsedSql.getSql(), start, rows);
+            finishTrace(traceStart, null);
+            return rows;
+        } catch (SQLException ex) {
+            ExecutionMetrics.failed(parsedSql.getSql(), start, ex);
+            finishTrace(traceStart, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Выполнение запроса на выборку с последовательным перебором результатов.
+     * Строки преобразуются в объекты по мере чтения, поэтому расход памяти не
+     * зависит от объёма результатов. Результаты запроса закрываются по
+     * достижении последней строки либо при закрытии итератора.
+     *
+     * @param <T> Тип объекта
+     * @param mapper Преобразование строки в объект
+     * @return Итератор по результатам запроса
+     * @throws SQLException
+     */
+    public <T> ResultIterator<T> iterator(RowMapper<T> mapper) throws SQLException {
+        ResultSet rs = executeQuery();
+        try {
+            return new ResultIterator<T>(rs, mapper);
+        } catch (SQLException ex) {
+            rs.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Выполнение запроса на выборку с чтением всех результатов по столбцам.
+     * Числовые значения хранятся в массивах примитивных типов без создания
+     * объекта на каждое значение.
+     *
+     * @return Результаты запроса
+     * @throws SQLException
+     */
+    public ColumnarResult fetchColumnar() throws SQLException {
+        ResultSet rs = executeQuery();
+        try {
+            return ColumnarResult.read(rs);
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * Выполнение запроса на выборку с представлением результатов в виде
+     * потока, строки которого преобразуются в объекты по мере чтения.
+     * Результаты запроса закрываются при закрытии потока.
+     *
+     * @param <T> Тип объекта
+     * @param mapper Преобразование строки в объект
+     * @return Поток объектов
+     * @throws SQLException
+     */
+    public <T> Stream<T> stream(RowMapper<T> mapper) throws SQLException {
+        final ResultIterator<T> iterator = iterator(mapper);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        iterator.close();
+                    }
+                });
+    }
+
+    /**
+     * Выполнение запроса на выборку с представлением результатов в виде
+     * потока и указанием числа строк, получаемых от базы данных за одно
+     * обращение
+     *
+     * @param <T> Тип объекта
+     * @param mapper Преобразование строки в объект
+     * @param fetchSize Число строк
+     * @return Поток объектов
+     * @throws SQLException
+     */
+    public <T> Stream<T> stream(RowMapper<T> mapper, int fetchSize) throws SQLException {
+        checkNotBusy();
+        pstmt.setFetchSize(fetchSize);
+        return stream(mapper);
+    }
+
+    /**
+     * Устанавливает число строк, получаемых от базы данных за одно обращение
+     * при чтении результатов запроса
+     *
+     * @param rows Число строк
+     * @throws SQLException
+     */
+    public void setFetchSize(int rows) throws SQLException {
+        checkNotBusy();
+        pstmt.setFetchSize(rows);
+    }
+
+    /**
+     * Возвращает число строк, получаемых от базы данных за одно обращение при
+     * чтении результатов запроса
+     *
+     * @return
+     * @throws SQLException
+     */
+    public int getFetchSize() throws SQLException {
+        return statement.getFetchSize();
+    }
+
+    /**
+     * Очищает текущие значения параметров
+     *
+     * @throws SQLException
+     */
+    public void clearParameters() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        pstmt.clearParameters();
+    }
+
+    /**
+     * Закрывает запрос
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        statement.close();
+    }
+
+    /**
+     * Проверяет, закрыт ли запрос
+     *
+     * @return
+     * @throws SQLException
+     */
+    public boolean isClosed() throws SQLException {
+        return statement.isClosed();
+    }
+
+    /**
+     * Добавляет текущие значения параметров в пакет
+     *
+     * @throws SQLException
+     */
+    public void addBatch() throws SQLException {
+        checkNotBusy();
+        pstmt.addBatch();
+        resetBindState();
+        batchRows++;
+    }
+
+    /**
+     * Очищает пакет, включая строки буфера пакета ({@link #getBatchBuffer()})
+     *
+     * @throws SQLException
+     */
+    public void clearBatch() throws SQLException {
+        clearDriverBatch();
+        if (batchBuffer != null) {
+            batchBuffer.clear();
+        }
+    }
+
+    /**
+     * Очищает пакет драйвера, не затрагивая строки буфера пакета
+     *
+     * @throws SQLException
+     */
+    void clearDriverBatch() throws SQLException {
+        checkNotBusy();
+        pstmt.clearBatch();
+        batchRows = 0;
+    }
+
+    /**
+     * Выполнение пакета
+     *
+     * @return Число обработанных записей для каждой строки пакета
+     * @throws SQLException
+     */
+    public int[] executeBatch() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        batchRows = 0;
+        long start = ExecutionMetrics.start();
+        long traceStart = QueryTracer.start(shape, recorder);
+        try {
+            int[] counts = statement.executeBatch();
+            if (start != ExecutionMetrics.DISABLED) {
+                ExecutionMetrics.batchExecuted(parsedSql.getSql(), start, counts.length, sumUpdateCounts(counts));
+            }
+            finishTrace(traceStart, null);
+            return counts;
+        } catch (SQLException ex) {
+            ExecutionMetrics.failed(parsedSql.getSql(), start, ex);
+            finishTrace(traceStart, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Выполнение пакета с числом обработанных записей типа long
+     *
+     * @return Число обработанных записей для каждой строки пакета
+     * @throws SQLException
+     */
+    public long[] executeLargeBatch() throws SQLException {
+        checkNotBusy();
+        resetBindState();
+        batchRows = 0;
+        long start = ExecutionMetrics.start();
+        long traceStart = QueryTracer.start(shape, recorder);
+        try {
+            long[] counts = statement.executeLargeBatch();
+            if (start != ExecutionMetrics.DISABLED) {
+                long total = 0;
+                for (long count : counts) {
+                    if (count > 0) {
+                        total += count;
+                    }
+                }
+                ExecutionMetrics.batchExecuted(parsedSql.getSql(), start, counts.length, total);
+            }
+            finishTrace(traceStart, null);
+            return counts;
+        } catch (SQLException ex) {
+            ExecutionMetrics.failed(parsedSql.getSql(), start, ex);
+            finishTrace(traceStart, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Асинхронное выполнение запроса на выборку. До завершения выполнения
+     * установка значений параметров и другие операции с запросом приводят к
+     * IllegalStateException; отмена результата прерывает выполнение запроса.
+     *
+     * @return Результаты запроса
+     * @throws IllegalStateException Если для запроса уже выполняется
+     * асинхронная операция
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync() {
+        return submit(new Callable<ResultSet>() {
+            @Override
+            public ResultSet call() throws SQLException {
+                return executeQuery();
+            }
+        });
+    }
+
+    /**
+     * Асинхронное выполнение запроса на выборку с преобразованием всех строк
+     * результатов в объекты. Результаты запроса закрываются после чтения.
+     *
+     * @param <T> Тип объекта
+     * @param mapper Преобразование строки в объект
+     * @return Список объектов
+     * @throws IllegalStateException Если для запроса уже выполняется
+     * асинхронная операция
+     */
+    public <T> CompletableFuture<List<T>> executeQueryAsync(final RowMapper<T> mapper) {
+        return submit(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws SQLException {
+                ResultSet rs = executeQuery();
+                try {
+                    ResultColumns columns = new ResultColumns(rs);
+                    List<T> rows = new ArrayList<T>();
+                    while (rs.next()) {
+                        rows.add(mapper.mapRow(rs, columns));
+                    }
+                    return rows;
+                } finally {
+                    rs.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Асинхронное выполнение запроса не предусматривающего возврат данных
+     *
+     * @return Результат выполнения запроса
+     * @throws IllegalStateException Если для запроса уже выполняется
+     * асинхронная операция
+     */
+    public CompletableFuture<Boolean> executeAsync() {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws SQLException {
+                return execute();
+            }
+        });
+    }
+
+    /**
+     * Асинхронное выполнение пакета
+     *
+     * @return Число обработанных записей для каждой строки пакета
+     * @throws IllegalStateException Если для запроса уже выполняется
+     * асинхронная операция
+     */
+    public CompletableFuture<int[]> executeBatchAsync() {
+        return submit(new Callable<int[]>() {
+            @Override
+            public int[] call() throws SQLException {
+                return executeBatch();
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        return AsyncSupport.submit(getExecutor(), owner, statement, task);
+    }
+
+    /**
+     * Проверяет, что для запроса не выполняется асинхронная операция. Поток,
+     * выполняющий асинхронную операцию, проверку проходит.
+     *
+     * @throws IllegalStateException Если для запроса выполняется асинхронная
+     * операция
+     */
+    void checkNotBusy() {
+        Object current = owner.get();
+        if (current != null && current != Thread.currentThread()) {
+            throw new IllegalStateException("Statement is executing asynchronously");
+        }
+    }
+
+    /**
+     * Сбрасывает признаки установленных значений параметров после
+     * выполнения, добавления строки в пакет либо очистки параметров
+     */
+    private void resetBindState() {
+        valuesBound = false;
+        if (listValues != null) {
+            Arrays.fill(listValues, null);
+        }
+    }
+
+    /**
+     * Устанавливает исполнитель асинхронных операций для запроса
+     *
+     * @param executor Исполнитель (null - исполнитель по умолчанию)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Возвращает исполнитель асинхронных операций для запроса
+     *
+     * @return
+     */
+    public Executor getExecutor() {
+        return executor == null ? AsyncSupport.getDefaultExecutor() : executor;
+    }
+
+    /**
+     * Устанавливает исполнитель асинхронных операций по умолчанию для всех
+     * запросов. Изначально используются виртуальные потоки (Java 21 и новее)
+     * либо пул потоков-демонов.
+     *
+     * @param executor Исполнитель (null - исходный исполнитель по умолчанию)
+     */
+    public static void setDefaultExecutor(Executor executor) {
+        AsyncSupport.setDefaultExecutor(executor);
+    }
+
+    /**
+     * Выполнение пакета из строк, заданных коллекциями "имя параметра -
+     * значение". Значения параметров устанавливаются так же, как в
+     * {@link #setParameters(Map)}. Пакет отправляется на выполнение по мере накопления
+     * {@link #getBatchSize()} строк.
+     *
+     * @param rows Строки пакета
+     * @return Суммарное число обработанных записей (строки, для которых
+     * драйвер не сообщил число записей, не учитываются)
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public long executeBatch(Iterable<? extends Map<String, ?>> rows) throws SQLException, UnknownParameterException {
+        checkNotBusy();
+        long total = 0;
+        int pending = 0;
+        for (Map<String, ?> row : rows) {
+            ParsedNamedSql rowShape = getShape(row);
+            if (rowShape != shape && pending > 0) {
+                /*Строки с другим числом элементов списков выполняются новым вариантом запроса*/
+                total += sumUpdateCounts(executeBatch());
+                pending = 0;
+            }
+            setParameters(row, rowShape);
+            addBatch();
+            if (++pending == batchSize) {
+                total += sumUpdateCounts(executeBatch());
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            total += sumUpdateCounts(executeBatch());
+        }
+        return total;
+    }
+
+    /**
+     * Выполнение пакета из строк, заданных объектами JavaBeans или записями
+     * (record). Значения параметров устанавливаются так же, как в
+     * {@link #bind(Object)}. Пакет отправляется на выполнение по мере накопления
+     * {@link #getBatchSize()} строк.
+     *
+     * @param beans Строки пакета
+     * @return Суммарное число обработанных записей (строки, для которых
+     * драйвер не сообщил число записей, не учитываются)
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если для
+     * параметра нет соответствующего свойства
+     */
+    public long executeBeanBatch(Iterable<?> beans) throws SQLException, UnknownParameterException {
+        checkNotBusy();
+        long total = 0;
+        int pending = 0;
+        Class<?> beanClass = null;
+        BeanBinder binder = null;
+        for (Object bean : beans) {
+            if (bean.getClass() != beanClass) {
+                beanClass = bean.getClass();
+                binder = BeanBinder.forClass(beanClass, parsedSql);
+            }
+            long start = ExecutionMetrics.start();
+            binder.bind(pstmt, shape, bean);
+            ExecutionMetrics.bound(parsedSql.getSql(), start);
+            addBatch();
+            if (++pending == batchSize) {
+                total += sumUpdateCounts(executeBatch());
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            total += sumUpdateCounts(executeBatch());
+        }
+        return total;
+    }
+
+    /**
+     * Устанавливает значения всех параметров запроса из свойств объекта
+     * JavaBeans или компонентов записи (record). Значение каждого параметра
+     * берётся из метода getXxx(), isXxx() либо xxx() с именем параметра (без
+     * учёта регистра).
+     *
+     * @param bean Объект
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если для
+     * параметра нет метода чтения значения
+     */
+    public void bind(Object bean) throws SQLException, UnknownParameterException {
+        checkNotBusy();
+        long start = ExecutionMetrics.start();
+        BeanBinder.forClass(bean.getClass(), parsedSql).bind(pstmt, shape, bean);
+        valuesBound = true;
+        ExecutionMetrics.bound(parsedSql.getSql(), start);
+    }
+
+    /**
+     * Устанавливает значения всех параметров запроса из коллекции "имя
+     * параметра - значение". Для каждого значения используется типизированный
+     * сеттер, соответствующий его классу (Integer - setInt, byte[] - setBytes,
+     * LocalDate - setObject с типом DATE и т.д.), для неизвестных классов -
+     * setObject.
+     *
+     * @param values Значения параметров
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если
+     * значения заданы не для всех параметров запроса либо заданы для
+     * отсутствующих в нём параметров (в сообщении перечисляются все такие
+     * параметры)
+     */
+    public void setParameters(Map<String, ?> values) throws SQLException, UnknownParameterException {
+        checkNotBusy();
+        setParameters(values, getShape(values));
+    }
+
+    /**
+     * Определяет вариант запроса по размерам всех параметров-списков
+     *
+     * @param values Значения параметров
+     * @return
+     */
+    private ParsedNamedSql getShape(Map<String, ?> values) {
+        ParsedNamedSql target = parsedSql;
+        for (int i = 0; i < parsedSql.getParamCount(); i++) {
+            Object value = values.get(parsedSql.getParamName(i));
+            if (value instanceof Collection) {
+                target = target.withListSize(i, getListSize(((Collection<?>) value).size()));
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Устанавливает значения всех параметров запроса для заранее
+     * определённого варианта запроса
+     *
+     * @param values Значения параметров
+     * @param target Вариант запроса
+     */
+    private void setParameters(Map<String, ?> values, ParsedNamedSql target) throws SQLException, UnknownParameterException {
+        long start = ExecutionMetrics.start();
+        reshape(target);
+        resetBindState();
+        valuesBound = true;
+        List<String> missing = null;
+        int found = 0;
+        for (int i = 0; i < parsedSql.getParamCount(); i++) {
+            String paramName = parsedSql.getParamName(i);
+            Object value = values.get(paramName);
+            if (value == null && !values.containsKey(paramName)) {
+                if (missing == null) {
+                    missing = new ArrayList<String>();
+                }
+                missing.add(paramName);
+                continue;
+            }
+            found++;
+            if (value instanceof Collection) {
+                bindCollection(i, (Collection<?>) value);
+            } else {
+                ValueBinder.bindValue(pstmt, shape.getParamIndexes(i), value);
+            }
+        }
+        if (missing != null || found < values.size()) {
+            List<String> unknown = new ArrayList<String>();
+            for (String paramName : values.keySet()) {
+                if (!parsedSql.getParamsMap().containsKey(paramName)) {
+                    unknown.add(paramName);
+                }
+            }
+            throw new UnknownParameterException("Missing parameters: " + (missing == null ? "[]" : missing) + ", unknown parameters: " + unknown);
+        }
+        ExecutionMetrics.bound(parsedSql.getSql(), start);
+    }
+
+    /**
+     * Устанавливает значение параметра-списка для условий вида IN (:ids).
+     * Каждое вхождение параметра раскрывается в список анонимных параметров,
+     * число которых округляется вверх до степени двойки (недостающие позиции
+     * заполняются последним элементом, пустой список - значением NULL), что
+     * ограничивает число различных вариантов SQL запроса. Варианты запроса
+     * кэшируются.
+     *
+     * При изменении числа анонимных параметров запрос подготавливается
+     * заново, а значения ранее установленных параметров-списков
+     * устанавливаются повторно. Значения остальных параметров при этом были
+     * бы потеряны, поэтому параметры-списки следует устанавливать первыми:
+     * если после последнего выполнения уже установлены значения других
+     * параметров либо в пакете есть не выполненные строки, выбрасывается
+     * IllegalStateException. Значения, установленные для предыдущего
+     * выполнения, в новый вариант запроса не переносятся.
+     *
+     * @param paramName Параметр
+     * @param values Значения
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     * @throws IllegalStateException Если изменяется число анонимных
+     * параметров, а значения других параметров уже установлены либо пакет не
+     * выполнен
+     */
+    public void setCollection(String paramName, Collection<?> values) throws SQLException, UnknownParameterException {
+        checkNotBusy();
+        int ordinal = parsedSql.getParamOrdinal(paramName);
+        if (ordinal < 0) {
+            throw new UnknownParameterException();
+        }
+        ParsedNamedSql newShape = shape.withListSize(ordinal, getListSize(values.size()));
+        if (newShape != shape) {
+            if (valuesBound) {
+                throw new IllegalStateException("Parameters set before list parameter " + paramName + " would be lost: set list parameters first");
+            }
+            reshape(newShape);
+            if (listValues != null) {
+                for (int i = 0; i < listValues.length; i++) {
+                    if (listValues[i] != null && i != ordinal) {
+                        bindCollection(i, Arrays.asList(listValues[i]));
+                    }
+                }
+            }
+        }
+        if (listValues == null) {
+            listValues = new Object[parsedSql.getParamCount()][];
+        }
+        listValues[ordinal] = values.toArray();
+        bindCollection(ordinal, values);
+    }
+
+    /**
+     * Число анонимных параметров для списка значений: ближайшая сверху
+     * степень двойки
+     *
+     * @param size Число значений
+     * @return
+     */
+    private static int getListSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Устанавливает значения элементов параметра-списка для текущего варианта
+     * запроса
+     *
+     * @param ordinal Порядковый номер параметра
+     * @param values Значения
+     */
+    private void bindCollection(int ordinal, Collection<?> values) throws SQLException {
+        int size = shape.getListSize(ordinal);
+        int[] indexes = shape.getParamIndexes(ordinal);
+        if (values.isEmpty()) {
+            ValueBinder.bindValue(pstmt, indexes, null);
+            return;
+        }
+        for (int start = 0; start < indexes.length; start += size) {
+            Object value = null;
+            int i = start;
+            for (Object element : values) {
+                value = element;
+                ValueBinder.bindValue(pstmt, indexes[i++], value);
+            }
+            while (i < start + size) {
+                ValueBinder.bindValue(pstmt, indexes[i++], value);
+            }
+        }
+    }
+
+    /**
+     * Возвращает буфер строк пакета запроса, в котором значения параметров
+     * хранятся по столбцам в массивах примитивных типов до выполнения пакета
+     *
+     * @return
+     */
+    public BatchBuffer getBatchBuffer() {
+        if (batchBuffer == null) {
+            batchBuffer = new BatchBuffer(this);
+        }
+        return batchBuffer;
+    }
 
     /**
-     * Конструктор
+     * Возвращает соединение с базой данных
+     *
+     * @return
+     */
+    Connection getConnection() {
+        return con;
+    }
+
+    /**
+     * Возвращает запрос к исходному варианту SQL без раскрытых
+     * параметров-списков
      *
-     * @param connection Соединение с базой данных
-     * @param sql Параметрический SQL запрос
      * @throws SQLException
      */
-    public NamedPreparedStatement(Connection connection, String sql) throws SQLException {
-        con = connection;       
-        pstmt = this.con.prepareStatement(getConvertedSql(sql));
-        paramsMap = this.getParamsMap(sql);
+    void resetShape() throws SQLException {
+        reshape(parsedSql);
     }
 
     /**
-     * Возвращает объект PreparedStatement
+     * Переключает запрос на другой вариант SQL, подготавливая его заново
      *
-     * @return
+     * @param newShape Вариант запроса
+     * @throws SQLException
+     * @throws IllegalStateException Если в пакете есть не выполненные строки
      */
-    public PreparedStatement getPreparedStatement() {
-        return pstmt;
+    private void reshape(ParsedNamedSql newShape) throws SQLException {
+        checkNotBusy();
+        if (newShape == shape) {
+            return;
+        }
+        if (batchRows > 0) {
+            throw new IllegalStateException("Batch of " + batchRows + " rows is not executed: SQL variant cannot be changed");
+        }
+        PreparedStatement prepared = prepare(newShape);
+        int fetchSize = statement.getFetchSize();
+        if (fetchSize > 0) {
+            prepared.setFetchSize(fetchSize);
+        }
+        statement.close();
+        statement = prepared;
+        shape = newShape;
+        setRecording(recorder != null);
     }
 
-    /*Методы-обёртки для часто используемого функционала PreparedStatement чтобы избежать лишней цепочки методов*/
     /**
-     * Выполнение запроса на выборку
+     * Подготавливает запрос для варианта SQL
      *
-     * @return Результаты запросы
+     * @param sqlShape Вариант запроса
+     * @return Подготовленный запрос
      * @throws SQLException
      */
-    public ResultSet executeQuery() throws SQLException {
-        return pstmt.executeQuery();
+    private PreparedStatement prepare(ParsedNamedSql sqlShape) throws SQLException {
+        long start = ExecutionMetrics.start();
+        PreparedStatement prepared = createStatement(con, sqlShape.getConvertedSql(), resultSetType, resultSetConcurrency);
+        ExecutionMetrics.prepared(parsedSql.getSql(), start);
+        return prepared;
     }
 
     /**
-     * Выполнение запроса не предусматривающего возврат данных
+     * Завершает трассировку выполнения и определяет, попадает ли в выборку
+     * следующее выполнение
      *
-     * @return Результат выполнения запроса
+     * @param traceStart Время начала выполнения
+     * @param error Ошибка выполнения либо null
+     */
+    private void finishTrace(long traceStart, Throwable error) {
+        QueryTracer.finish(shape, recorder, traceStart, error);
+        traceNext();
+    }
+
+    /**
+     * Определяет, попадает ли следующее выполнение в выборку трассировки
+     */
+    private void traceNext() {
+        setRecording(QueryTracer.sample());
+    }
+
+    /**
+     * Переключает установку значений параметров на посредника, запоминающего
+     * значения для трассировки, либо непосредственно на запрос. Значения,
+     * установленные до включения запоминания, в трассировку не попадают.
+     *
+     * @param record Признак запоминания значений
+     */
+    private void setRecording(boolean record) {
+        if (record) {
+            recorder = new BindRecorder(statement, shape);
+            pstmt = recorder.getStatement();
+        } else {
+            recorder = null;
+            pstmt = statement;
+        }
+    }
+
+    /**
+     * Создаёт объект запроса для SQL с анонимными параметрами
+     *
+     * @param connection Соединение с базой данных
+     * @param sql SQL запрос с анонимными параметрами
+     * @param resultSetType Тип результатов запроса
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * @return
      * @throws SQLException
      */
-    public boolean execute() throws SQLException {
-        return pstmt.execute();
+    PreparedStatement createStatement(Connection connection, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
     }
 
     /**
-     * Преобразует исходный SQL запрос в SQL запрос с анонимными параметрами для
-     * работы объекта PreparedStatement
+     * Возвращает число строк, после накопления которых пакет отправляется на
+     * выполнение
      *
-     * @param sql Исходный SQL запрос
-     * @return Преобразованный SQL запрос
+     * @return
      */
-    private String getConvertedSql(String sql) {
-        Matcher matcher = getMatcher(sql);
-        return matcher.replaceAll(REPLACEMENT);
+    public int getBatchSize() {
+        return batchSize;
     }
 
     /**
-     * Поиск параметров в запросе (общие механизмы)
+     * Устанавливает число строк, после накопления которых пакет отправляется
+     * на выполнение
      *
-     * @param sql
-     * @return Результат поиска в виде объекта Matcher
+     * @param batchSize Размер пакета
      */
-    private Matcher getMatcher(String sql) {
-        Pattern pattern = Pattern.compile(REGEX, 0);
-        Matcher matcher = pattern.matcher(sql);
-        return matcher;
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1");
+        }
+        this.batchSize = batchSize;
     }
 
     /**
-     * Формирует коллекцию из праметров запроса и их индексов
+     * Суммирует число обработанных записей пакета
      *
-     * @param sql SQL запрос
+     * @param counts Результат выполнения пакета
      * @return
      */
-    private HashMap<String, Integer> getParamsMap(String sql) {
-        Matcher matcher = getMatcher(sql);
-        HashMap<String, Integer> map = new HashMap<String, Integer>();
-        int i = 0;
-        while (matcher.find()) {
-            i++;
-            map.put(matcher.group().substring(1), i);
+    private static long sumUpdateCounts(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                total += count;
+            }
         }
-        return map;
+        return total;
     }
 
     /**
-     * Получает индекс параметра по его имени
+     * Получает индексы всех вхождений параметра по его имени
      *
      * @param paramName Параметр
      *
      */
-    private int getParamIndex(String paramName) throws UnknownParameterException {
-        try {
-            return paramsMap.get(paramName);
-        } catch (NullPointerException ex) {
+    int[] getParamIndexes(String paramName) throws UnknownParameterException {
+        int[] indexes = findParamIndexes(paramName);
+        valuesBound = true;
+        return indexes;
+    }
+
+    /**
+     * Получает индексы всех вхождений параметра по его имени без установки
+     * значения (например, для чтения выходного параметра)
+     *
+     * @param paramName Параметр
+     *
+     */
+    int[] findParamIndexes(String paramName) throws UnknownParameterException {
+        checkNotBusy();
+        int[] indexes = shape.getParamsMap().get(paramName);
+        if (indexes == null) {
+            throw new UnknownParameterException();
+        }
+        return indexes;
+    }
+
+    /**
+     * Получает индексы всех вхождений заранее разрешённого параметра
+     *
+     * @param slot Параметр
+     *
+     */
+    private int[] getParamIndexes(ParamSlot slot) {
+        checkNotBusy();
+        if (!slot.getParsedSql().isSameQuery(parsedSql)) {
+            throw new IllegalArgumentException("Parameter slot belongs to another statement: " + slot.getName());
+        }
+        valuesBound = true;
+        return shape.getParamIndexes(slot.getOrdinal());
+    }
+
+    /**
+     * Разрешает параметр запроса по имени для последующей установки значений
+     * без поиска по имени
+     *
+     * @param paramName Параметр
+     * @return Разрешённый параметр
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    public ParamSlot getParamSlot(String paramName) throws UnknownParameterException {
+        int ordinal = parsedSql.getParamOrdinal(paramName);
+        if (ordinal < 0) {
             throw new UnknownParameterException();
         }
+        return new ParamSlot(parsedSql, ordinal);
     }
 
     /*СЕТТЕРЫ ДЛЯ ПАРАМЕТРОВ*/
@@ -144,7 +1075,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setArray(String paramName, Array value) throws SQLException, UnknownParameterException {
-        pstmt.setArray(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setArray(index, value);
+        }
     }
 
     /**
@@ -157,7 +1090,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setAsciiStream(String paramName, InputStream stream) throws SQLException, UnknownParameterException {
-        pstmt.setAsciiStream(getParamIndex(paramName), stream);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setAsciiStream(index, stream);
+        }
     }
 
     /**
@@ -171,7 +1106,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setAsciiStream(String paramName, InputStream stream, long streamLength) throws SQLException, UnknownParameterException {
-        pstmt.setAsciiStream(getParamIndex(paramName), stream, streamLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setAsciiStream(index, stream, streamLength);
+        }
     }
 
     /**
@@ -185,7 +1122,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setAsciiStream(String paramName, InputStream stream, int streamLength) throws SQLException, UnknownParameterException {
-        pstmt.setAsciiStream(getParamIndex(paramName), stream, streamLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setAsciiStream(index, stream, streamLength);
+        }
     }
 
     /**
@@ -198,7 +1137,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBigDecimal(String paramName, BigDecimal value) throws SQLException, UnknownParameterException {
-        pstmt.setBigDecimal(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBigDecimal(index, value);
+        }
     }
 
     /**
@@ -211,7 +1152,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBinaryStream(String paramName, InputStream stream) throws SQLException, UnknownParameterException {
-        pstmt.setBinaryStream(getParamIndex(paramName), stream);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBinaryStream(index, stream);
+        }
     }
 
     /**
@@ -225,7 +1168,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBinaryStream(String paramName, InputStream stream, long streamLength) throws SQLException, UnknownParameterException {
-        pstmt.setBinaryStream(getParamIndex(paramName), stream, streamLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBinaryStream(index, stream, streamLength);
+        }
     }
 
     /**
@@ -239,7 +1184,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBinaryStream(String paramName, InputStream stream, int streamLength) throws SQLException, UnknownParameterException {
-        pstmt.setBinaryStream(getParamIndex(paramName), stream, streamLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBinaryStream(index, stream, streamLength);
+        }
     }
 
     /**
@@ -251,7 +1198,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBlob(String paramName, Blob value) throws SQLException, UnknownParameterException {
-        pstmt.setBlob(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBlob(index, value);
+        }
     }
 
     /**
@@ -263,7 +1212,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBlob(String paramName, InputStream stream) throws SQLException, UnknownParameterException {
-        pstmt.setBlob(getParamIndex(paramName), stream);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBlob(index, stream);
+        }
     }
 
     /**
@@ -276,7 +1227,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBlob(String paramName, InputStream value, long streamLength) throws SQLException, UnknownParameterException {
-        pstmt.setBlob(getParamIndex(paramName), value, streamLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBlob(index, value, streamLength);
+        }
     }
 
     /**
@@ -288,7 +1241,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBoolean(String paramName, Boolean value) throws SQLException, UnknownParameterException {
-        pstmt.setBoolean(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBoolean(index, value);
+        }
     }
 
     /**
@@ -300,7 +1255,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setByte(String paramName, byte value) throws SQLException, UnknownParameterException {
-        pstmt.setByte(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setByte(index, value);
+        }
     }
 
     /**
@@ -312,7 +1269,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setBytes(String paramName, byte value[]) throws SQLException, UnknownParameterException {
-        pstmt.setBytes(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setBytes(index, value);
+        }
     }
 
     /**
@@ -324,7 +1283,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setCharacterStream(String paramName, Reader reader) throws SQLException, UnknownParameterException {
-        pstmt.setCharacterStream(getParamIndex(paramName), reader);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setCharacterStream(index, reader);
+        }
     }
 
     /**
@@ -337,7 +1298,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setCharacterStream(String paramName, Reader reader, long blockLength) throws SQLException, UnknownParameterException {
-        pstmt.setCharacterStream(getParamIndex(paramName), reader, blockLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setCharacterStream(index, reader, blockLength);
+        }
     }
 
     /**
@@ -350,7 +1313,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setCharacterStream(String paramName, Reader reader, int blockLength) throws SQLException, UnknownParameterException {
-        pstmt.setCharacterStream(getParamIndex(paramName), reader, blockLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setCharacterStream(index, reader, blockLength);
+        }
     }
 
     /**
@@ -362,7 +1327,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setClob(String paramName, Clob value) throws SQLException, UnknownParameterException {
-        pstmt.setClob(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setClob(index, value);
+        }
     }
 
     /**
@@ -374,7 +1341,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setClob(String paramName, Reader reader) throws SQLException, UnknownParameterException {
-        pstmt.setClob(getParamIndex(paramName), reader);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setClob(index, reader);
+        }
     }
 
     /**
@@ -387,7 +1356,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setClob(String paramName, Reader reader, long blockLength) throws SQLException, UnknownParameterException {
-        pstmt.setClob(getParamIndex(paramName), reader, blockLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setClob(index, reader, blockLength);
+        }
     }
 
     /**
@@ -399,7 +1370,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setDate(String paramName, Date value) throws SQLException, UnknownParameterException {
-        pstmt.setDate(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setDate(index, value);
+        }
     }
 
     /**
@@ -412,7 +1385,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setDate(String paramName, Date value, Calendar calendar) throws SQLException, UnknownParameterException {
-        pstmt.setDate(getParamIndex(paramName), value, calendar);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setDate(index, value, calendar);
+        }
     }
 
     /**
@@ -425,8 +1400,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setDouble(String paramName, double value) throws SQLException, UnknownParameterException {
-
-        pstmt.setDouble(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setDouble(index, value);
+        }
     }
 
     /**
@@ -439,7 +1415,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setFloat(String paramName, float value) throws SQLException, UnknownParameterException {
-        pstmt.setFloat(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setFloat(index, value);
+        }
     }
 
     /**
@@ -451,7 +1429,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setInt(String paramName, int value) throws SQLException, UnknownParameterException {
-        pstmt.setInt(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setInt(index, value);
+        }
     }
 
     /**
@@ -463,7 +1443,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setLong(String paramName, long value) throws SQLException, UnknownParameterException {
-        pstmt.setLong(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setLong(index, value);
+        }
     }
 
     /**
@@ -476,7 +1458,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setCNharacterStream(String paramName, Reader reader) throws SQLException, UnknownParameterException {
-        pstmt.setNCharacterStream(getParamIndex(paramName), reader);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNCharacterStream(index, reader);
+        }
     }
 
     /**
@@ -490,7 +1474,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNCharacterStream(String paramName, Reader reader, long blockLength) throws SQLException, UnknownParameterException {
-        pstmt.setNCharacterStream(getParamIndex(paramName), reader, blockLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNCharacterStream(index, reader, blockLength);
+        }
     }
 
     /**
@@ -502,7 +1488,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNClob(String paramName, NClob value) throws SQLException, UnknownParameterException {
-        pstmt.setNClob(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNClob(index, value);
+        }
     }
 
     /**
@@ -514,7 +1502,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNClob(String paramName, Reader reader) throws SQLException, UnknownParameterException {
-        pstmt.setNClob(getParamIndex(paramName), reader);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNClob(index, reader);
+        }
     }
 
     /**
@@ -527,7 +1517,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNClob(String paramName, Reader reader, long blockLength) throws SQLException, UnknownParameterException {
-        pstmt.setNClob(getParamIndex(paramName), reader, blockLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNClob(index, reader, blockLength);
+        }
     }
 
     /**
@@ -540,7 +1532,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNString(String paramName, String value) throws SQLException, UnknownParameterException {
-        pstmt.setNString(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNString(index, value);
+        }
     }
 
     /**
@@ -552,7 +1546,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNull(String paramName, int sqlType) throws SQLException, UnknownParameterException {
-        pstmt.setNull(getParamIndex(paramName), sqlType);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNull(index, sqlType);
+        }
     }
 
     /**
@@ -565,7 +1561,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setNull(String paramName, int sqlType, String typeName) throws SQLException, UnknownParameterException {
-        pstmt.setNull(getParamIndex(paramName), sqlType, typeName);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setNull(index, sqlType, typeName);
+        }
     }
 
     /**
@@ -577,7 +1575,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setObject(String paramName, Object value) throws SQLException, UnknownParameterException {
-        pstmt.setObject(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setObject(index, value);
+        }
     }
 
     /**
@@ -590,7 +1590,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setObject(String paramName, Object value, SQLType targetSQLType) throws SQLException, UnknownParameterException {
-        pstmt.setObject(getParamIndex(paramName), targetSQLType);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setObject(index, value, targetSQLType);
+        }
     }
 
     /**
@@ -603,7 +1605,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setObject(String paramName, Object value, int targetSQLType) throws SQLException, UnknownParameterException {
-        pstmt.setObject(getParamIndex(paramName), targetSQLType);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setObject(index, value, targetSQLType);
+        }
     }
 
     /**
@@ -617,7 +1621,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setObject(String paramName, Object value, SQLType targetSQLType, int sizeOrLength) throws SQLException, UnknownParameterException {
-        pstmt.setObject(getParamIndex(paramName), targetSQLType, sizeOrLength);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setObject(index, value, targetSQLType, sizeOrLength);
+        }
     }
 
     /**
@@ -631,7 +1637,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setObject(String paramName, Object value, int targetSQLType, int sizeOrLength) throws SQLException, UnknownParameterException {
-        pstmt.setObject(getParamIndex(paramName), targetSQLType, sizeOrLength); 
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setObject(index, value, targetSQLType, sizeOrLength);
+        }
     }
     
     /**
@@ -643,7 +1651,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setRef(String paramName, Ref value) throws SQLException, UnknownParameterException {
-        pstmt.setRef(getParamIndex(paramName),value); 
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setRef(index, value);
+        }
     }
     
     /**
@@ -655,7 +1665,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setRowId(String paramName, RowId value) throws SQLException, UnknownParameterException {
-        pstmt.setRowId(getParamIndex(paramName),value); 
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setRowId(index, value);
+        }
     }
     
     /**
@@ -667,7 +1679,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setSQLXML(String paramName, SQLXML value) throws SQLException, UnknownParameterException {
-        pstmt.setSQLXML(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setSQLXML(index, value);
+        }
     }
     
     /**
@@ -679,7 +1693,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setShort(String paramName, short value) throws SQLException, UnknownParameterException {
-        pstmt.setShort(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setShort(index, value);
+        }
     }
 
     /**
@@ -691,7 +1707,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setString(String paramName, String value) throws SQLException, UnknownParameterException {
-        pstmt.setString(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setString(index, value);
+        }
     }
     /**
      * Устанавливает значение параметра запроса типа время (Time)
@@ -702,7 +1720,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setTime(String paramName, Time value) throws SQLException, UnknownParameterException {
-        pstmt.setTime(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setTime(index, value);
+        }
     }
     /**
      * Устанавливает значение параметра запроса типа время (Time)
@@ -714,7 +1734,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setTime(String paramName, Time value,Calendar calendar) throws SQLException, UnknownParameterException {
-        pstmt.setTime(getParamIndex(paramName), value, calendar);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setTime(index, value, calendar);
+        }
     }
      /**
      * Устанавливает значение параметра запроса типа Timestamp
@@ -725,7 +1747,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setTimeStamp(String paramName, Timestamp value) throws SQLException, UnknownParameterException {
-        pstmt.setTimestamp(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setTimestamp(index, value);
+        }
     }
     /**
      * Устанавливает значение параметра запроса типа Timestamp
@@ -737,7 +1761,9 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setTimeStamp(String paramName, Timestamp value,Calendar calendar) throws SQLException, UnknownParameterException {
-        pstmt.setTimestamp(getParamIndex(paramName), value, calendar); 
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setTimestamp(index, value, calendar);
+        }
     }
     /**
      * Устанавливает значение параметра запроса типа URL
@@ -748,7 +1774,247 @@ public class NamedPreparedStatement {
      * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
      */
     public void setURL(String paramName, URL value) throws SQLException, UnknownParameterException {
-        pstmt.setURL(getParamIndex(paramName), value);
+        for (int index : getParamIndexes(paramName)) {
+            pstmt.setURL(index, value);
+        }
+    }
+
+    /*СЕТТЕРЫ ДЛЯ ЗАРАНЕЕ РАЗРЕШЁННЫХ ПАРАМЕТРОВ*/
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа число
+     * с плавающей точкой (BigDecimal)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setBigDecimal(ParamSlot slot, BigDecimal value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setBigDecimal(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса логического
+     * типа (boolean)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setBoolean(ParamSlot slot, boolean value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setBoolean(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа byte
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setByte(ParamSlot slot, byte value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setByte(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа массив
+     * байт
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setBytes(ParamSlot slot, byte[] value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setBytes(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа дата
+     * (Date)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setDate(ParamSlot slot, Date value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setDate(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа число
+     * с плавающей точкой (double)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setDouble(ParamSlot slot, double value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setDouble(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа число
+     * с плавающей точкой (float)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setFloat(ParamSlot slot, float value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setFloat(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа целое
+     * число (int)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setInt(ParamSlot slot, int value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setInt(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа целое
+     * число (long)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setLong(ParamSlot slot, long value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setLong(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа строка
+     * (String) с преобразованием в кодировку БД
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setNString(ParamSlot slot, String value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setNString(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса значением
+     * NULL
+     *
+     * @param slot Параметр
+     * @param sqlType Тип SQL
+     * @throws SQLException
+     */
+    public void setNull(ParamSlot slot, int sqlType) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setNull(index, sqlType);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа Object
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setObject(ParamSlot slot, Object value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setObject(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа Object
+     * с указанием типа SQL
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @param targetSQLType Тип SQL
+     * @throws SQLException
+     */
+    public void setObject(ParamSlot slot, Object value, SQLType targetSQLType) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setObject(index, value, targetSQLType);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа целое
+     * число (short)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setShort(ParamSlot slot, short value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setShort(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа строка
+     * (String)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setString(ParamSlot slot, String value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setString(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа время
+     * (Time)
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setTime(ParamSlot slot, Time value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setTime(index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение заранее разрешённого параметра запроса типа
+     * Timestamp
+     *
+     * @param slot Параметр
+     * @param value Значение
+     * @throws SQLException
+     */
+    public void setTimeStamp(ParamSlot slot, Timestamp value) throws SQLException {
+        for (int index : getParamIndexes(slot)) {
+            pstmt.setTimestamp(index, value);
+        }
     }
 
 }
@@ -0,0 +1,41 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметрический SQL запрос, разбираемый при компиляции обработчиком
+ * аннотаций {@link NamedSqlProcessor}. Для каждого типа, содержащего
+ * аннотированные элементы, создаётся класс с именем типа и суффиксом
+ * NamedSql, содержащий для каждого запроса SQL с анонимными параметрами,
+ * таблицу индексов параметров и метод установки значений параметров.
+ *
+ * Аннотацией отмечаются строковые константы (запросом является значение
+ * константы) либо методы интерфейсов (запрос задаётся значением аннотации,
+ * параметры метода должны совпадать по именам с параметрами запроса и
+ * определяют типы значений).
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface NamedSql {
+
+    /**
+     * Параметрический SQL запрос (для констант не задаётся)
+     *
+     * @return
+     */
+    String value() default "";
+
+    /**
+     * Синтаксис параметров запроса
+     *
+     * @return
+     */
+    ParamSyntax syntax() default ParamSyntax.COLON;
+}
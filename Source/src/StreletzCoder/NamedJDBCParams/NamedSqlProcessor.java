@@ -0,0 +1,932 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Обработчик аннотаций {@link NamedSql}: разбирает параметрические SQL
+ * запросы при компиляции и создаёт для каждого типа с аннотированными
+ * элементами класс TypeNamedSql, содержащий для каждого запроса:
+ * <ul>
+ * <li>константу с SQL запросом с анонимными параметрами;</li>
+ * <li>константы с именами параметров и индексами их вхождений;</li>
+ * <li>метод bindXxx(PreparedStatement, ...), устанавливающий значения
+ * параметров типизированными сеттерами по заранее вычисленным индексам.</li>
+ * </ul>
+ * Для интерфейсов с методами, отмеченными {@link Query}, создаются
+ * реализации TypeImpl.
+ *
+ * Несоответствие параметров метода параметрам запроса является ошибкой
+ * компиляции.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@SupportedAnnotationTypes({"StreletzCoder.NamedJDBCParams.NamedSql", "StreletzCoder.NamedJDBCParams.Query",
+    "StreletzCoder.NamedJDBCParams.Param"})
+public class NamedSqlProcessor extends AbstractProcessor {
+
+    static final String CLASS_SUFFIX = "NamedSql";
+    static final String IMPL_SUFFIX = "Impl";
+    private static final String STATEMENT_PARAM = "statement";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Map<TypeElement, List<ParsedQuery>> queries = new LinkedHashMap<TypeElement, List<ParsedQuery>>();
+        for (Element element : round.getElementsAnnotatedWith(NamedSql.class)) {
+            ParsedQuery query = element.getKind() == ElementKind.METHOD
+                    ? fromMethod((ExecutableElement) element)
+                    : fromConstant((VariableElement) element);
+            if (query == null) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            List<ParsedQuery> typeQueries = queries.get(type);
+            if (typeQueries == null) {
+                typeQueries = new ArrayList<ParsedQuery>();
+                queries.put(type, typeQueries);
+            }
+            typeQueries.add(query);
+        }
+        for (Map.Entry<TypeElement, List<ParsedQuery>> entry : queries.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+        LinkedHashSet<TypeElement> daos = new LinkedHashSet<TypeElement>();
+        for (Element element : round.getElementsAnnotatedWith(Query.class)) {
+            daos.add((TypeElement) element.getEnclosingElement());
+        }
+        for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+            addInheritingDaos(type, daos);
+        }
+        for (TypeElement dao : daos) {
+            writeDao(dao);
+        }
+        return true;
+    }
+
+    /**
+     * Запрос, заданный строковой константой
+     */
+    private ParsedQuery fromConstant(VariableElement field) {
+        Object value = field.getConstantValue();
+        if (!(value instanceof String) || !field.getModifiers().contains(Modifier.STATIC)) {
+            error(field, "@NamedSql field must be a static final String constant");
+            return null;
+        }
+        String name = field.getSimpleName().toString();
+        ParsedNamedSql parsed = ParsedNamedSql.parse((String) value, field.getAnnotation(NamedSql.class).syntax());
+        ParsedQuery query = new ParsedQuery(field, constantName(name), "bind" + capitalize(camelCase(name)), parsed);
+        for (int i = 0; i < parsed.getParamCount(); i++) {
+            query.paramTypes.add(null);
+        }
+        return query;
+    }
+
+    /**
+     * Запрос, заданный методом интерфейса; параметры метода определяют типы
+     * значений параметров запроса
+     */
+    private ParsedQuery fromMethod(ExecutableElement method) {
+        NamedSql annotation = method.getAnnotation(NamedSql.class);
+        String sql = annotation.value();
+        if (sql.isEmpty()) {
+            error(method, "@NamedSql on a method must specify the SQL");
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        ParsedQuery query = new ParsedQuery(method, constantName(name), "bind" + capitalize(name), ParsedNamedSql.parse(sql, annotation.syntax()));
+        return bindMethodParameters(query, method, method.getParameters()) ? query : null;
+    }
+
+    /**
+     * Сопоставляет параметры запроса параметрам метода по именам
+     *
+     * @return false, если параметры не совпадают (ошибки выведены)
+     */
+    private boolean bindMethodParameters(ParsedQuery query, Element element, List<? extends VariableElement> parameters) {
+        boolean valid = true;
+        HashSet<String> used = new HashSet<String>();
+        for (int i = 0; i < query.parsed.getParamCount(); i++) {
+            String paramName = query.parsed.getParamName(i);
+            VariableElement parameter = null;
+            for (VariableElement candidate : parameters) {
+                if (parameterName(candidate).equals(paramName)) {
+                    parameter = candidate;
+                }
+            }
+            if (parameter == null) {
+                error(element, "SQL parameter :" + paramName + " has no matching method parameter");
+                valid = false;
+            } else {
+                used.add(paramName);
+                query.paramTypes.add(parameter.asType());
+                query.arguments.add(parameter.getSimpleName().toString());
+            }
+        }
+        for (VariableElement parameter : parameters) {
+            if (!used.contains(parameterName(parameter))) {
+                error(parameter, "Method parameter " + parameter.getSimpleName() + " is not used in the SQL");
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Имя параметра запроса, соответствующего параметру метода: значение
+     * аннотации {@link Param} либо имя параметра метода
+     */
+    static String parameterName(VariableElement parameter) {
+        Param param = parameter.getAnnotation(Param.class);
+        return param == null ? parameter.getSimpleName().toString() : param.value();
+    }
+
+    /**
+     * Создаёт класс с разобранными запросами типа
+     */
+    private void write(TypeElement type, List<ParsedQuery> queries) {
+        String packageName = packageOf(type);
+        String className = generatedName(type, CLASS_SUFFIX);
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import java.sql.PreparedStatement;\n");
+        out.append("import java.sql.SQLException;\n");
+        out.append("import java.sql.Types;\n\n");
+        out.append("/**\n * Запросы {@link ").append(type.getQualifiedName())
+                .append("}, разобранные при компиляции (создано NamedSqlProcessor)\n */\n");
+        out.append("public final class ").append(className).append(" {\n");
+        HashSet<String> names = new HashSet<String>();
+        for (ParsedQuery query : queries) {
+            if (!names.add(query.constant)) {
+                error(query.element, "Duplicate @NamedSql name " + query.constant + " in " + type.getSimpleName());
+                continue;
+            }
+            writeConstants(out, query);
+            writeBinder(out, query, "public static");
+        }
+        out.append("\n    private ").append(className).append("() {\n    }\n}\n");
+        writeSource(type, packageName, className, out);
+    }
+
+    /**
+     * Добавляет интерфейсы (в том числе вложенные), унаследовавшие методы с
+     * {@link Query} от родительских интерфейсов
+     */
+    private void addInheritingDaos(TypeElement type, Set<TypeElement> daos) {
+        if (type.getKind() == ElementKind.INTERFACE && !daos.contains(type)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+                if (method.getAnnotation(Query.class) != null) {
+                    daos.add(type);
+                    break;
+                }
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            addInheritingDaos(nested, daos);
+        }
+    }
+
+    /**
+     * Создаёт реализацию интерфейса доступа к данным. Реализуются также
+     * методы, унаследованные от родительских интерфейсов.
+     */
+    private void writeDao(TypeElement dao) {
+        if (dao.getKind() != ElementKind.INTERFACE) {
+            error(dao, "@Query methods must be declared in an interface");
+            return;
+        }
+        ArrayList<ParsedQuery> queries = new ArrayList<ParsedQuery>();
+        HashSet<String> constants = new HashSet<String>();
+        boolean valid = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(dao))) {
+            Query annotation = method.getAnnotation(Query.class);
+            if (annotation == null) {
+                if (method.getModifiers().contains(Modifier.ABSTRACT) && !isClose(method)) {
+                    error(method, "Method without @Query cannot be implemented");
+                    valid = false;
+                }
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            String constant = constantName(name);
+            for (int n = 2; !constants.add(constant); n++) {
+                constant = constantName(name) + "_" + n;
+            }
+            ParsedQuery query = new ParsedQuery(method, constant, "bind" + capitalize(camelCase(constant)), ParsedNamedSql.parse(annotation.value(), annotation.syntax()));
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            if (!method.getTypeParameters().isEmpty()) {
+                error(method, "Generic @Query methods are not supported");
+                valid = false;
+            } else if (owner != dao && !owner.getTypeParameters().isEmpty()) {
+                error(dao, "@Query method " + method.getSimpleName() + " inherited from generic interface " + owner.getQualifiedName() + " is not supported");
+                valid = false;
+            } else if (bindMethodParameters(query, method, method.getParameters()) && resolveResult(query, method, annotation)) {
+                queries.add(query);
+            } else {
+                valid = false;
+            }
+        }
+        if (!valid) {
+            return;
+        }
+        String packageName = packageOf(dao);
+        String className = generatedName(dao, IMPL_SUFFIX);
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import StreletzCoder.NamedJDBCParams.ResultColumns;\n");
+        out.append("import StreletzCoder.NamedJDBCParams.UncheckedSQLException;\n");
+        out.append("import java.sql.Connection;\n");
+        out.append("import java.sql.PreparedStatement;\n");
+        out.append("import java.sql.ResultSet;\n");
+        out.append("import java.sql.SQLException;\n");
+        out.append("import java.sql.Types;\n\n");
+        out.append("/**\n * Реализация {@link ").append(dao.getQualifiedName())
+                .append("} (создано NamedSqlProcessor). Запросы подготавливаются при\n")
+                .append(" * первом вызове и используются повторно; объект не предназначен для\n")
+                .append(" * одновременного использования из разных потоков.\n */\n");
+        out.append("public final class ").append(className).append(" implements ")
+                .append(dao.getQualifiedName()).append(", AutoCloseable {\n");
+        for (ParsedQuery query : queries) {
+            writeConstants(out, query);
+        }
+        out.append("\n    private final Connection connection;\n");
+        for (ParsedQuery query : queries) {
+            out.append("    private PreparedStatement ").append(query.field).append(";\n");
+            if (query.mapper != null) {
+                out.append("    private final ").append(typeName(query.mapper)).append(' ').append(camelCase(query.constant))
+                        .append("Mapper = new ").append(typeName(query.mapper)).append("();\n");
+            }
+        }
+        out.append("\n    /**\n     * Конструктор\n     *\n     * @param connection Соединение с базой данных\n     */\n");
+        out.append("    public ").append(className).append("(Connection connection) {\n");
+        out.append("        this.connection = connection;\n    }\n");
+        for (ParsedQuery query : queries) {
+            writeDaoMethod(out, query);
+        }
+        for (ParsedQuery query : queries) {
+            writeBinder(out, query, "private static");
+        }
+        out.append("\n    /**\n     * Закрывает подготовленные запросы\n     *\n     * @throws SQLException\n     */\n");
+        out.append("    @Override\n    public void close() throws SQLException {\n");
+        out.append("        SQLException error = null;\n");
+        out.append("        for (PreparedStatement statement : new PreparedStatement[]{");
+        for (int i = 0; i < queries.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(queries.get(i).field);
+        }
+        out.append("}) {\n");
+        out.append("            if (statement == null) {\n                continue;\n            }\n");
+        out.append("            try {\n                statement.close();\n            } catch (SQLException ex) {\n");
+        out.append("                if (error == null) {\n                    error = ex;\n                } else {\n");
+        out.append("                    error.addSuppressed(ex);\n                }\n            }\n        }\n");
+        for (ParsedQuery query : queries) {
+            out.append("        ").append(query.field).append(" = null;\n");
+        }
+        out.append("        if (error != null) {\n            throw error;\n        }\n    }\n}\n");
+        writeSource(dao, packageName, className, out);
+    }
+
+    /**
+     * Определяет вид результата метода и способ чтения строки
+     *
+     * @return false, если тип результата не поддерживается (ошибка выведена)
+     */
+    private boolean resolveResult(ParsedQuery query, ExecutableElement method, Query annotation) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror mapper;
+        try {
+            annotation.mapper();
+            throw new IllegalStateException();
+        } catch (MirroredTypeException ex) {
+            mapper = ex.getTypeMirror();
+        }
+        String mapperName = ((TypeElement) types.asElement(mapper)).getQualifiedName().toString();
+        query.mapper = mapperName.equals(RowMapper.class.getName()) ? null : mapper;
+        query.field = camelCase(query.constant) + "Statement";
+        TypeMirror returnType = method.getReturnType();
+        if (!isSelect(annotation.value())) {
+            TypeKind kind = returnType.getKind();
+            if (kind != TypeKind.VOID && kind != TypeKind.INT && kind != TypeKind.LONG) {
+                error(method, "Update @Query methods must return void, int or long");
+                return false;
+            }
+            query.result = kind == TypeKind.VOID ? Result.NONE : kind == TypeKind.INT ? Result.UPDATE_COUNT : Result.LARGE_UPDATE_COUNT;
+            return true;
+        }
+        query.row = returnType;
+        query.result = Result.SINGLE;
+        if (returnType.getKind() == TypeKind.DECLARED && !((DeclaredType) returnType).getTypeArguments().isEmpty()) {
+            String name = ((TypeElement) types.asElement(returnType)).getQualifiedName().toString();
+            if (name.equals("java.util.List") || name.equals("java.util.Collection") || name.equals("java.lang.Iterable")) {
+                query.result = Result.LIST;
+                query.row = ((DeclaredType) returnType).getTypeArguments().get(0);
+            } else if (name.equals("java.util.Optional")) {
+                query.result = Result.OPTIONAL;
+                query.row = ((DeclaredType) returnType).getTypeArguments().get(0);
+            }
+        }
+        if (returnType.getKind() == TypeKind.VOID) {
+            error(method, "Select @Query methods must return a value");
+            return false;
+        }
+        if (query.mapper == null && readColumn(query.row) == null) {
+            error(method, "No mapper specified for result type " + query.row);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Тело метода реализации: подготовка запроса, установка значений
+     * параметров, выполнение и чтение результатов
+     */
+    private void writeDaoMethod(StringBuilder out, ParsedQuery query) {
+        ExecutableElement method = (ExecutableElement) query.element;
+        boolean declaresSqlException = declaresSqlException(method);
+        out.append("\n    @Override\n    public ").append(typeName(method.getReturnType())).append(' ')
+                .append(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(typeName(parameters.get(i).asType())).append(' ')
+                    .append(parameters.get(i).getSimpleName());
+        }
+        out.append(')');
+        if (!method.getThrownTypes().isEmpty()) {
+            out.append(" throws ");
+            for (int i = 0; i < method.getThrownTypes().size(); i++) {
+                out.append(i == 0 ? "" : ", ").append(typeName(method.getThrownTypes().get(i)));
+            }
+        }
+        out.append(" {\n");
+        String indent = declaresSqlException ? "        " : "            ";
+        if (!declaresSqlException) {
+            out.append("        try {\n");
+        }
+        out.append(indent).append("if (").append(query.field).append(" == null) {\n");
+        out.append(indent).append("    ").append(query.field).append(" = connection.prepareStatement(")
+                .append(query.constant).append(");\n");
+        out.append(indent).append("}\n");
+        out.append(indent).append(query.binder).append('(').append(query.field);
+        for (String argument : query.arguments) {
+            out.append(", ").append(argument);
+        }
+        out.append(");\n");
+        if (query.result == Result.NONE) {
+            out.append(indent).append(query.field).append(".executeUpdate();\n");
+        } else if (query.result == Result.UPDATE_COUNT) {
+            out.append(indent).append("return ").append(query.field).append(".executeUpdate();\n");
+        } else if (query.result == Result.LARGE_UPDATE_COUNT) {
+            out.append(indent).append("return ").append(query.field).append(".executeLargeUpdate();\n");
+        } else {
+            writeRead(out, query, indent);
+        }
+        if (!declaresSqlException) {
+            out.append("        } catch (SQLException ex) {\n");
+            out.append("            throw new UncheckedSQLException(ex);\n");
+            out.append("        }\n");
+        }
+        out.append("    }\n");
+    }
+
+    /**
+     * Чтение результатов запроса на выборку
+     */
+    private void writeRead(StringBuilder out, ParsedQuery query, String indent) {
+        String row = query.mapper == null
+                ? readColumn(query.row)
+                : camelCase(query.constant) + "Mapper.mapRow(rs, columns)";
+        out.append(indent).append("ResultSet rs = ").append(query.field).append(".executeQuery();\n");
+        out.append(indent).append("try {\n");
+        String body = indent + "    ";
+        if (query.mapper != null) {
+            out.append(body).append("ResultColumns columns = new ResultColumns(rs);\n");
+        }
+        String rowType = typeName(query.row);
+        if (query.result == Result.LIST) {
+            out.append(body).append("java.util.List<").append(rowType).append("> result = new java.util.ArrayList<")
+                    .append(rowType).append(">();\n");
+            out.append(body).append("while (rs.next()) {\n");
+            out.append(body).append("    result.add(").append(row).append(");\n");
+            out.append(body).append("}\n");
+            out.append(body).append("return result;\n");
+        } else if (query.result == Result.OPTIONAL) {
+            out.append(body).append("return rs.next() ? java.util.Optional.<").append(rowType).append(">ofNullable(")
+                    .append(row).append(") : java.util.Optional.<").append(rowType).append(">empty();\n");
+        } else {
+            out.append(body).append("if (!rs.next()) {\n");
+            if (query.row.getKind().isPrimitive()) {
+                out.append(body).append("    throw new SQLException(\"No rows returned\");\n");
+            } else {
+                out.append(body).append("    return null;\n");
+            }
+            out.append(body).append("}\n");
+            out.append(body).append("return ").append(row).append(";\n");
+        }
+        out.append(indent).append("} finally {\n");
+        out.append(indent).append("    rs.close();\n");
+        out.append(indent).append("}\n");
+    }
+
+    /**
+     * Выражение чтения значения первого столбца строки результатов
+     *
+     * @return Выражение либо null, если тип не поддерживается
+     */
+    static String readColumn(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return "rs.getInt(1)";
+            case LONG:
+                return "rs.getLong(1)";
+            case SHORT:
+                return "rs.getShort(1)";
+            case BYTE:
+                return "rs.getByte(1)";
+            case DOUBLE:
+                return "rs.getDouble(1)";
+            case FLOAT:
+                return "rs.getFloat(1)";
+            case BOOLEAN:
+                return "rs.getBoolean(1)";
+            case DECLARED:
+                if (!((DeclaredType) type).getTypeArguments().isEmpty()) {
+                    return null;
+                }
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                if (name.equals("java.lang.String")) {
+                    return "rs.getString(1)";
+                } else if (name.equals("java.math.BigDecimal")) {
+                    return "rs.getBigDecimal(1)";
+                } else if (name.equals("java.sql.Date")) {
+                    return "rs.getDate(1)";
+                } else if (name.equals("java.sql.Time")) {
+                    return "rs.getTime(1)";
+                } else if (name.equals("java.sql.Timestamp")) {
+                    return "rs.getTimestamp(1)";
+                } else if (name.startsWith("java.")) {
+                    return "rs.getObject(1, " + name + ".class)";
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Проверяет, является ли запрос запросом на выборку (начинается с
+     * SELECT, WITH или VALUES)
+     */
+    static boolean isSelect(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        return sql.regionMatches(true, i, "select", 0, 6) || sql.regionMatches(true, i, "with", 0, 4)
+                || sql.regionMatches(true, i, "values", 0, 6);
+    }
+
+    private boolean declaresSqlException(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror sqlException = processingEnv.getElementUtils().getTypeElement("java.sql.SQLException").asType();
+        for (TypeMirror thrown : method.getThrownTypes()) {
+            if (types.isAssignable(sqlException, thrown)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isClose(ExecutableElement method) {
+        return method.getSimpleName().contentEquals("close") && method.getParameters().isEmpty();
+    }
+
+    /**
+     * Константы запроса: SQL с анонимными параметрами, имена параметров и
+     * индексы их вхождений
+     */
+    static void writeConstants(StringBuilder out, ParsedQuery query) {
+        ParsedNamedSql parsed = query.parsed;
+        out.append("\n    /**\n     * SQL запрос ").append(query.element.getSimpleName())
+                .append(" с анонимными параметрами\n     */\n");
+        out.append("    public static final String ").append(query.constant).append(" = ")
+                .append(literal(parsed.getConvertedSql())).append(";\n");
+        out.append("\n    /**\n     * Имена параметров запроса ").append(query.constant).append("\n     */\n");
+        out.append("    public static final String[] ").append(query.constant).append("_PARAMS = {");
+        for (int i = 0; i < parsed.getParamCount(); i++) {
+            out.append(i == 0 ? "" : ", ").append(literal(parsed.getParamName(i)));
+        }
+        out.append("};\n");
+        out.append("\n    /**\n     * Индексы вхождений параметров запроса ").append(query.constant)
+                .append(" (в порядке ").append(query.constant).append("_PARAMS)\n     */\n");
+        out.append("    public static final int[][] ").append(query.constant).append("_INDEXES = {");
+        for (int i = 0; i < parsed.getParamCount(); i++) {
+            out.append(i == 0 ? "{" : ", {");
+            int[] indexes = parsed.getParamIndexes(i);
+            for (int k = 0; k < indexes.length; k++) {
+                out.append(k == 0 ? "" : ", ").append(indexes[k]);
+            }
+            out.append('}');
+        }
+        out.append("};\n");
+    }
+
+    /**
+     * Метод установки значений параметров запроса
+     */
+    static void writeBinder(StringBuilder out, ParsedQuery query, String modifiers) {
+        ParsedNamedSql parsed = query.parsed;
+        String[] names = javaNames(parsed);
+        String statement = statementParam(names);
+        out.append("\n    /**\n     * Устанавливает значения параметров запроса ").append(query.constant)
+                .append("\n     *\n     * @param ").append(statement).append(" Запрос\n     * @throws SQLException\n     */\n");
+        out.append("    ").append(modifiers).append(" void ").append(query.binder).append("(PreparedStatement ").append(statement);
+        for (int i = 0; i < parsed.getParamCount(); i++) {
+            TypeMirror type = query.paramTypes.get(i);
+            out.append(", ").append(type == null ? "Object" : typeName(type)).append(' ').append(names[i]);
+        }
+        out.append(") throws SQLException {\n");
+        for (int i = 0; i < parsed.getParamCount(); i++) {
+            appendSetters(out, "        ", statement, names[i], query.paramTypes.get(i), parsed.getParamIndexes(i));
+        }
+        out.append("    }\n");
+    }
+
+    /**
+     * Вызовы типизированного сеттера для всех вхождений параметра
+     *
+     * @param type Тип значения (null - Object)
+     */
+    static void appendSetters(StringBuilder out, String indent, String statement, String value, TypeMirror type, int[] indexes) {
+        String[] setter = setterFor(type);
+        for (int index : indexes) {
+            if (setter[1] != null) {
+                out.append(indent).append("if (").append(value).append(" == null) {\n")
+                        .append(indent).append("    ").append(statement).append(".setNull(").append(index)
+                        .append(", Types.").append(setter[1]).append(");\n")
+                        .append(indent).append("} else {\n")
+                        .append(indent).append("    ").append(statement).append('.').append(setter[0]).append('(')
+                        .append(index).append(", ").append(value).append(");\n")
+                        .append(indent).append("}\n");
+            } else if (setter[0].equals("setString") && type.getKind() == TypeKind.CHAR) {
+                out.append(indent).append(statement).append(".setString(").append(index)
+                        .append(", String.valueOf(").append(value).append("));\n");
+            } else {
+                out.append(indent).append(statement).append('.').append(setter[0]).append('(')
+                        .append(index).append(", ").append(value).append(");\n");
+            }
+        }
+    }
+
+    /**
+     * Сеттер PreparedStatement для типа значения
+     *
+     * @return Имя сеттера и тип java.sql.Types для значения null (только для
+     * классов-обёрток примитивных типов)
+     */
+    static String[] setterFor(TypeMirror type) {
+        if (type == null) {
+            return new String[]{"setObject", null};
+        }
+        switch (type.getKind()) {
+            case INT:
+                return new String[]{"setInt", null};
+            case LONG:
+                return new String[]{"setLong", null};
+            case SHORT:
+                return new String[]{"setShort", null};
+            case BYTE:
+                return new String[]{"setByte", null};
+            case DOUBLE:
+                return new String[]{"setDouble", null};
+            case FLOAT:
+                return new String[]{"setFloat", null};
+            case BOOLEAN:
+                return new String[]{"setBoolean", null};
+            case CHAR:
+                return new String[]{"setString", null};
+            case ARRAY:
+                if (((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE) {
+                    return new String[]{"setBytes", null};
+                }
+                return new String[]{"setObject", null};
+            case DECLARED:
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                if (name.equals("java.lang.Integer")) {
+                    return new String[]{"setInt", "INTEGER"};
+                } else if (name.equals("java.lang.Long")) {
+                    return new String[]{"setLong", "BIGINT"};
+                } else if (name.equals("java.lang.Short")) {
+                    return new String[]{"setShort", "SMALLINT"};
+                } else if (name.equals("java.lang.Byte")) {
+                    return new String[]{"setByte", "TINYINT"};
+                } else if (name.equals("java.lang.Double")) {
+                    return new String[]{"setDouble", "DOUBLE"};
+                } else if (name.equals("java.lang.Float")) {
+                    return new String[]{"setFloat", "REAL"};
+                } else if (name.equals("java.lang.Boolean")) {
+                    return new String[]{"setBoolean", "BOOLEAN"};
+                } else if (name.equals("java.lang.String")) {
+                    return new String[]{"setString", null};
+                } else if (name.equals("java.math.BigDecimal")) {
+                    return new String[]{"setBigDecimal", null};
+                } else if (name.equals("java.sql.Date")) {
+                    return new String[]{"setDate", null};
+                } else if (name.equals("java.sql.Time")) {
+                    return new String[]{"setTime", null};
+                } else if (name.equals("java.sql.Timestamp")) {
+                    return new String[]{"setTimestamp", null};
+                }
+                return new String[]{"setObject", null};
+            default:
+                return new String[]{"setObject", null};
+        }
+    }
+
+    /**
+     * Имя параметра метода установки значений, содержащего запрос (не
+     * совпадающее с именами параметров запроса)
+     */
+    static String statementParam(String[] names) {
+        Set<String> used = new HashSet<String>(Arrays.asList(names));
+        String name = STATEMENT_PARAM;
+        while (used.contains(name)) {
+            name += "_";
+        }
+        return name;
+    }
+
+    /**
+     * Имена переменных Java для параметров запроса (в порядке параметров),
+     * различные для всех параметров
+     */
+    static String[] javaNames(ParsedNamedSql parsed) {
+        String[] names = new String[parsed.getParamCount()];
+        Set<String> used = new HashSet<String>();
+        for (int i = 0; i < names.length; i++) {
+            String name = javaName(parsed.getParamName(i));
+            String unique = name;
+            for (int n = 2; !used.add(unique); n++) {
+                unique = name + "_" + n;
+            }
+            names[i] = unique;
+        }
+        return names;
+    }
+
+    /**
+     * Имя переменной Java для параметра запроса: недопустимые в
+     * идентификаторе символы (например, точки в #{user.id}) заменяются
+     * символом подчёркивания
+     */
+    static String javaName(String paramName) {
+        StringBuilder name = new StringBuilder(paramName.length() + 1);
+        for (int i = 0; i < paramName.length(); i++) {
+            char c = paramName.charAt(i);
+            if (i == 0 && !Character.isJavaIdentifierStart(c)) {
+                name.append('_');
+                if (Character.isJavaIdentifierPart(c)) {
+                    name.append(c);
+                }
+            } else {
+                name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+            }
+        }
+        String result = name.toString();
+        return SourceVersion.isKeyword(result) || result.equals("_") ? result + "_" : result;
+    }
+
+    /**
+     * Имя типа для объявления переменной
+     */
+    static String typeName(TypeMirror type) {
+        return type.toString();
+    }
+
+    private void writeSource(TypeElement type, String packageName, String className, StringBuilder source) {
+        String name = packageName.isEmpty() ? className : packageName + "." + className;
+        try {
+            Writer writer = processingEnv.getFiler().createSourceFile(name, type).openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            error(type, "Cannot write " + name + ": " + ex.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private String packageOf(TypeElement type) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    }
+
+    /**
+     * Имя создаваемого класса: имя типа (для вложенных типов - через "_") с
+     * суффиксом
+     */
+    static String generatedName(TypeElement type, String suffix) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name + suffix;
+    }
+
+    /**
+     * Имя константы в стиле UPPER_SNAKE_CASE
+     */
+    static String constantName(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(name.charAt(i - 1)) && name.charAt(i - 1) != '_') {
+                result.append('_');
+            }
+            result.append(Character.toUpperCase(c));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Имя в стиле camelCase из имени константы
+     */
+    static String camelCase(String name) {
+        if (!name.equals(name.toUpperCase())) {
+            return name;
+        }
+        StringBuilder result = new StringBuilder(name.length());
+        boolean upper = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_') {
+                upper = result.length() > 0;
+            } else {
+                result.append(upper ? c : Character.toLowerCase(c));
+                upper = false;
+            }
+        }
+        return result.toString();
+    }
+
+    static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Строковый литерал Java
+     */
+    static String literal(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * Разобранный при компиляции запрос
+     */
+    static final class ParsedQuery {
+
+        final Element element;
+        final String constant;
+        final String binder;
+        final ParsedNamedSql parsed;
+        /**
+         * Типы значений параметров в порядке следования (null - Object)
+         */
+        final List<TypeMirror> paramTypes = new ArrayList<TypeMirror>();
+        /**
+         * Имена параметров метода в порядке следования параметров запроса
+         */
+        final List<String> arguments = new ArrayList<String>();
+        /**
+         * Поле с подготовленным запросом (для реализаций интерфейсов)
+         */
+        String field;
+        /**
+         * Класс преобразования строки результатов (null - первый столбец)
+         */
+        TypeMirror mapper;
+        /**
+         * Вид результата метода
+         */
+        Result result;
+        /**
+         * Тип значения строки результатов
+         */
+        TypeMirror row;
+
+        ParsedQuery(Element element, String constant, String binder, ParsedNamedSql parsed) {
+            this.element = element;
+            this.constant = constant;
+            this.binder = binder;
+            this.parsed = parsed;
+        }
+    }
+
+    /**
+     * Вид результата метода интерфейса доступа к данным
+     */
+    enum Result {
+        /**
+         * Запрос на изменение без результата
+         */
+        NONE,
+        /**
+         * Число обработанных записей (int)
+         */
+        UPDATE_COUNT,
+        /**
+         * Число обработанных записей (long)
+         */
+        LARGE_UPDATE_COUNT,
+        /**
+         * Список строк
+         */
+        LIST,
+        /**
+         * Первая строка в Optional
+         */
+        OPTIONAL,
+        /**
+         * Первая строка
+         */
+        SINGLE
+    }
+}
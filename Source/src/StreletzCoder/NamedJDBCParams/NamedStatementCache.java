@@ -0,0 +1,176 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Кэш запросов NamedPreparedStatement для одного соединения. Повторный запрос
+ * того же SQL возвращает уже подготовленный объект с очищенными значениями
+ * параметров. При превышении максимального размера давно не
+ * использовавшиеся запросы (LRU) закрываются и удаляются из кэша.
+ *
+ * Запросы, полученные из кэша, не следует закрывать: они закрываются при
+ * вытеснении или при закрытии кэша.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class NamedStatementCache implements AutoCloseable {
+
+    /**
+     * Максимальный размер кэша по умолчанию
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final Connection con;
+    private final int maxSize;
+    private final LinkedHashMap<String, NamedPreparedStatement> statements;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     */
+    public NamedStatementCache(Connection connection) {
+        this(connection, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param connection Соединение с базой данных
+     * @param maxSize Максимальное число запросов в кэше
+     */
+    public NamedStatementCache(Connection connection, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize < 1");
+        }
+        this.con = connection;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, NamedPreparedStatement>(16, 0.75f, true);
+    }
+
+    /**
+     * Возвращает подготовленный запрос из кэша либо подготавливает новый
+     *
+     * @param sql Параметрический SQL запрос
+     * @return Запрос с очищенными значениями параметров, пакетом и буфером
+     * пакета
+     * @throws SQLException
+     */
+    public synchronized NamedPreparedStatement prepare(String sql) throws SQLException {
+        NamedPreparedStatement statement = statements.get(sql);
+        if (statement != null) {
+            if (!statement.isClosed()) {
+                hitCount++;
+                statement.clearParameters();
+                statement.clearBatch();
+                return statement;
+            }
+            statements.remove(sql);
+        }
+        missCount++;
+        if (statements.size() >= maxSize) {
+            evictEldest();
+        }
+        statement = new NamedPreparedStatement(con, sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    /**
+     * Закрывает и удаляет из кэша давно не использовавшийся запрос
+     *
+     * @throws SQLException
+     */
+    private void evictEldest() throws SQLException {
+        Iterator<NamedPreparedStatement> iterator = statements.values().iterator();
+        NamedPreparedStatement eldest = iterator.next();
+        iterator.remove();
+        evictionCount++;
+        eldest.close();
+    }
+
+    /**
+     * Закрывает все запросы и очищает кэш
+     *
+     * @throws SQLException Первая из возникших при закрытии ошибок
+     */
+    @Override
+    public synchronized void close() throws SQLException {
+        SQLException error = null;
+        for (NamedPreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        statements.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Возвращает соединение с базой данных
+     *
+     * @return
+     */
+    public Connection getConnection() {
+        return con;
+    }
+
+    /**
+     * Возвращает максимальное число запросов в кэше
+     *
+     * @return
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Возвращает текущее число запросов в кэше
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Возвращает число обращений, обслуженных из кэша
+     *
+     * @return
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Возвращает число обращений, потребовавших подготовки запроса
+     *
+     * @return
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Возвращает число запросов, вытесненных из кэша
+     *
+     * @return
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
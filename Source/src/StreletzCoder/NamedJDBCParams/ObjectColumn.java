@@ -0,0 +1,74 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Столбец значений произвольных классов
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ObjectColumn extends Column {
+
+    private Object[][] chunks = new Object[0][];
+
+    ObjectColumn() {
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isNull(row) ? null : chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    /**
+     * Записывает значение в строку
+     *
+     * @param row Номер строки
+     * @param value Значение
+     */
+    void set(int row, Object value) {
+        if (value == null) {
+            setNull(row);
+            return;
+        }
+        setNotNull(row);
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+    }
+
+    @Override
+    void bind(PreparedStatement statement, int[] indexes, int row) throws SQLException {
+        ValueBinder.bindValue(statement, indexes, getObject(row));
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException {
+        set(row, rs.getObject(index));
+    }
+
+    @Override
+    void clear() {
+        for (Object[] chunk : chunks) {
+            if (chunk != null) {
+                Arrays.fill(chunk, null);
+            }
+        }
+        super.clear();
+    }
+
+    @Override
+    void resetValue(int row) {
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = null;
+    }
+
+    @Override
+    void allocateChunk(int chunk) {
+        chunks[chunk] = new Object[CHUNK_SIZE];
+    }
+
+    @Override
+    void growChunks(int count) {
+        chunks = Arrays.copyOf(chunks, count);
+    }
+}
@@ -0,0 +1,364 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+
+/**
+ * Параллельное выполнение параметрического запроса по частям (партициям),
+ * например по диапазонам ключей WHERE id BETWEEN :lo AND :hi. Каждый
+ * рабочий поток получает собственное соединение из DataSource, один раз
+ * подготавливает запрос (результат разбора SQL общий для всех потоков) и
+ * последовательно выполняет его для очередных партиций. Результаты
+ * объединяются в поток объектов в порядке партиций либо в порядке
+ * поступления. Объём буферизованных строк ограничен: при медленном чтении
+ * потока рабочие потоки приостанавливаются.
+ *
+ * @param <T> Тип объекта
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class ParallelNamedQuery<T> {
+
+    /**
+     * Число буферизованных строк по умолчанию (на партицию при сохранении
+     * порядка либо на весь запрос)
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static final Object END = new Object();
+    private static final Object NULL = new Object();
+    private static final long WAIT_MILLIS = 100;
+
+    private final DataSource dataSource;
+    private final ParsedNamedSql parsedSql;
+    private final RowMapper<T> mapper;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int fetchSize;
+    private Executor executor;
+
+    /**
+     * Конструктор
+     *
+     * @param dataSource Источник соединений с базой данных
+     * @param sql Параметрический SQL запрос
+     * @param mapper Преобразование строки в объект
+     */
+    public ParallelNamedQuery(DataSource dataSource, String sql, RowMapper<T> mapper) {
+        this.dataSource = dataSource;
+        this.parsedSql = ParsedSqlCache.get(sql);
+        this.mapper = mapper;
+    }
+
+    /**
+     * Разбивает диапазон ключей [min, max] на партиции примерно равного
+     * размера
+     *
+     * @param loParam Имя параметра нижней границы (включительно)
+     * @param hiParam Имя параметра верхней границы (включительно)
+     * @param min Наименьший ключ
+     * @param max Наибольший ключ
+     * @param count Число партиций
+     * @return Значения параметров для каждой партиции
+     */
+    public static List<Map<String, Object>> ranges(String loParam, String hiParam, long min, long max, int count) {
+        if (count < 1 || max < min) {
+            throw new IllegalArgumentException("count < 1 || max < min");
+        }
+        List<Map<String, Object>> partitions = new ArrayList<Map<String, Object>>(count);
+        long span = (max - min) / count + 1;
+        for (long lo = min; lo <= max; lo += span) {
+            boolean last = lo > max - span;
+            Map<String, Object> partition = new HashMap<String, Object>(4);
+            partition.put(loParam, lo);
+            partition.put(hiParam, last ? max : lo + span - 1);
+            partitions.add(partition);
+            if (last) {
+                break;
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Выполняет запрос для партиций, заданных значениями параметров
+     *
+     * @param partitions Значения параметров для каждой партиции
+     * @param ordered Сохранять ли порядок партиций в результатах
+     * @return Поток объектов; должен быть закрыт после использования
+     */
+    public Stream<T> stream(List<? extends Map<String, ?>> partitions, boolean ordered) {
+        return stream(partitions, new PartitionBinder<Map<String, ?>>() {
+            @Override
+            public void bind(NamedPreparedStatement statement, Map<String, ?> partition) throws SQLException, UnknownParameterException {
+                statement.setParameters(partition);
+            }
+        }, ordered);
+    }
+
+    /**
+     * Выполняет запрос для партиций
+     *
+     * @param <P> Тип описания партиции
+     * @param partitions Партиции
+     * @param binder Установка значений параметров для партиции
+     * @param ordered Сохранять ли порядок партиций в результатах
+     * @return Поток объектов; должен быть закрыт после использования
+     */
+    public <P> Stream<T> stream(List<? extends P> partitions, PartitionBinder<? super P> binder, boolean ordered) {
+        final Execution<P> execution = new Execution<P>(partitions, binder, ordered);
+        execution.start();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(execution, ordered ? Spliterator.ORDERED : 0), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        execution.cancel();
+                    }
+                });
+    }
+
+    /**
+     * Возвращает число рабочих потоков (соединений)
+     *
+     * @return
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Устанавливает число рабочих потоков (соединений). По умолчанию равно
+     * числу процессоров.
+     *
+     * @param parallelism Число рабочих потоков
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Возвращает число буферизованных строк
+     *
+     * @return
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Устанавливает число буферизованных строк (на партицию при сохранении
+     * порядка либо на весь запрос)
+     *
+     * @param bufferSize Число строк
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize < 1");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Устанавливает число строк, получаемых от базы данных за одно обращение
+     *
+     * @param fetchSize Число строк (0 - значение драйвера по умолчанию)
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Устанавливает исполнитель рабочих потоков. По умолчанию используется
+     * исполнитель асинхронных операций NamedPreparedStatement.
+     *
+     * @param executor Исполнитель
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Одно выполнение запроса: рабочие потоки и чтение результатов
+     */
+    private final class Execution<P> implements Iterator<T> {
+
+        private final List<? extends P> partitions;
+        private final PartitionBinder<? super P> binder;
+        private final boolean ordered;
+        private final List<BlockingQueue<Object>> queues;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+        private final int workers;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+        private int current;
+        private int finished;
+        private Object next;
+
+        Execution(List<? extends P> partitions, PartitionBinder<? super P> binder, boolean ordered) {
+            this.partitions = partitions;
+            this.binder = binder;
+            this.ordered = ordered;
+            this.workers = Math.min(parallelism, partitions.size());
+            int count = ordered ? partitions.size() : 1;
+            queues = new ArrayList<BlockingQueue<Object>>(count);
+            for (int i = 0; i < count; i++) {
+                queues.add(new LinkedBlockingQueue<Object>(bufferSize));
+            }
+        }
+
+        void start() {
+            Executor workerExecutor = executor == null ? AsyncSupport.getDefaultExecutor() : executor;
+            try {
+                for (int i = 0; i < workers; i++) {
+                    workerExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            work();
+                        }
+                    });
+                }
+            } catch (RuntimeException ex) {
+                cancel();
+                throw ex;
+            }
+        }
+
+        /**
+         * Рабочий поток: выполняет запрос для очередных партиций на одном
+         * соединении
+         */
+        private void work() {
+            int partition;
+            try {
+                Connection con = dataSource.getConnection();
+                try {
+                    NamedPreparedStatement statement = parsedSql.prepare(con);
+                    try {
+                        if (fetchSize > 0) {
+                            statement.setFetchSize(fetchSize);
+                        }
+                        while (!cancelled && (partition = nextPartition.getAndIncrement()) < partitions.size()) {
+                            BlockingQueue<Object> queue = queueFor(partition);
+                            binder.bind(statement, partitions.get(partition));
+                            ResultSet rs = statement.executeQuery();
+                            try {
+                                ResultColumns columns = new ResultColumns(rs);
+                                while (!cancelled && rs.next()) {
+                                    T row = mapper.mapRow(rs, columns);
+                                    put(queue, row == null ? NULL : row);
+                                }
+                            } finally {
+                                rs.close();
+                            }
+                            if (ordered) {
+                                put(queue, END);
+                            }
+                        }
+                    } finally {
+                        statement.close();
+                    }
+                } finally {
+                    con.close();
+                }
+                if (!ordered) {
+                    put(queues.get(0), END);
+                }
+            } catch (Throwable ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+                cancelled = true;
+            }
+        }
+
+        private BlockingQueue<Object> queueFor(int partition) {
+            return queues.get(ordered ? partition : 0);
+        }
+
+        private void put(BlockingQueue<Object> queue, Object item) throws InterruptedException {
+            while (!cancelled) {
+                if (queue.offer(item, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            for (BlockingQueue<Object> queue : queues) {
+                if (queue != null) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (ordered ? current >= partitions.size() : finished >= workers) {
+                    return false;
+                }
+                Throwable error = failure;
+                if (error != null) {
+                    cancel();
+                    if (error instanceof SQLException) {
+                        throw new UncheckedSQLException((SQLException) error);
+                    }
+                    throw new IllegalStateException(error);
+                }
+                Object item;
+                try {
+                    item = queues.get(ordered ? current : 0).poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ex);
+                }
+                if (item == null) {
+                    continue;
+                }
+                if (item == END) {
+                    if (ordered) {
+                        queues.set(current, null);
+                        current++;
+                    } else {
+                        finished++;
+                    }
+                } else {
+                    next = item;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object item = next;
+            next = null;
+            return item == NULL ? null : (T) item;
+        }
+    }
+}
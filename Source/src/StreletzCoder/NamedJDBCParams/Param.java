@@ -0,0 +1,26 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Имя параметра SQL запроса, значением которого является параметр метода
+ * (по умолчанию используется имя параметра метода)
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PARAMETER)
+public @interface Param {
+
+    /**
+     * Имя параметра SQL запроса
+     *
+     * @return
+     */
+    String value();
+}
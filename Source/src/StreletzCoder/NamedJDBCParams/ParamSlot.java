@@ -0,0 +1,43 @@
+package StreletzCoder.NamedJDBCParams;
+
+/**
+ * Заранее разрешённый параметр запроса. Получается один раз методом
+ * {@link NamedPreparedStatement#getParamSlot(String)} и затем используется в
+ * сеттерах вместо имени параметра, что исключает поиск по имени при каждой
+ * установке значения. Действителен для любого объекта NamedPreparedStatement,
+ * созданного по тому же SQL запросу.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ParamSlot {
+
+    private final ParsedNamedSql parsedSql;
+    private final int ordinal;
+
+    ParamSlot(ParsedNamedSql parsedSql, int ordinal) {
+        this.parsedSql = parsedSql;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Возвращает имя параметра
+     *
+     * @return
+     */
+    public String getName() {
+        return parsedSql.getParamName(ordinal);
+    }
+
+    ParsedNamedSql getParsedSql() {
+        return parsedSql;
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,52 @@
+package StreletzCoder.NamedJDBCParams;
+
+/**
+ * Синтаксис именованных параметров SQL запроса. Синтаксис выбирается при
+ * разборе запроса и действует для всего запроса. Имя параметра начинается с
+ * латинской буквы или символа подчёркивания, за которыми следуют латинские
+ * буквы, цифры и символы подчёркивания.
+ *
+ * Во всех вариантах синтаксиса обратная косая черта перед параметром
+ * отменяет его распознавание: она удаляется из запроса, а параметр остаётся
+ * в запросе как есть.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public enum ParamSyntax {
+
+    /**
+     * :name (по умолчанию). Приведения типов PostgreSQL (::) параметрами не
+     * считаются.
+     */
+    COLON(':'),
+    /**
+     * @name (SQL Server, ADO.NET). Системные переменные (@@name)
+     * параметрами не считаются.
+     */
+    AT_SIGN('@'),
+    /**
+     * $name. Позиционные параметры ($1) и строки в долларовых кавычках
+     * PostgreSQL параметрами не считаются.
+     */
+    DOLLAR('$'),
+    /**
+     * #{name} (MyBatis). Имя может содержать точки (#{user.id}); уточнения
+     * после запятой (#{id,jdbcType=INTEGER}) пропускаются.
+     */
+    BRACES('#');
+
+    private final char prefix;
+
+    private ParamSyntax(char prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Возвращает символ, с которого начинается параметр
+     *
+     * @return
+     */
+    public char getPrefix() {
+        return prefix;
+    }
+}
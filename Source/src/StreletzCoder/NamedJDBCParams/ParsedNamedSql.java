@@ -0,0 +1,334 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Результат разбора параметрического SQL запроса. Объект неизменяемый и может
+ * совместно использоваться любым числом потоков и соединений: его можно
+ * создать один раз (например, как статическую константу) и подготавливать по
+ * нему запросы на любом соединении методом {@link #prepare(Connection)}.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ParsedNamedSql {
+
+    private final String sql;
+    private final ParamSyntax syntax;
+    private final String convertedSql;
+    private final Map<String, int[]> paramsMap;
+    private final String[] paramNames;
+    private final int[][] paramIndexes;
+    private final ParsedNamedSql base;
+    private final int[] listSizes;
+    private final ConcurrentHashMap<Shape, ParsedNamedSql> shapes;
+
+    private ParsedNamedSql(String sql, ParamSyntax syntax, String convertedSql, Map<String, int[]> paramsMap, String[] paramNames,
+            ParsedNamedSql base, int[] listSizes) {
+        this.sql = sql;
+        this.syntax = syntax;
+        this.convertedSql = convertedSql;
+        this.paramsMap = Collections.unmodifiableMap(paramsMap);
+        this.paramNames = paramNames;
+        paramIndexes = new int[paramNames.length][];
+        for (int i = 0; i < paramNames.length; i++) {
+            paramIndexes[i] = paramsMap.get(paramNames[i]);
+        }
+        this.base = base == null ? this : base;
+        this.listSizes = listSizes;
+        this.shapes = base == null ? new ConcurrentHashMap<Shape, ParsedNamedSql>() : null;
+    }
+
+    /**
+     * Разбирает параметрический SQL запрос с параметрами вида :name за один
+     * проход
+     *
+     * @param sql Параметрический SQL запрос
+     * @return Результат разбора
+     */
+    public static ParsedNamedSql parse(String sql) {
+        return parse(sql, ParamSyntax.COLON);
+    }
+
+    /**
+     * Разбирает параметрический SQL запрос за один проход
+     *
+     * @param sql Параметрический SQL запрос
+     * @param syntax Синтаксис параметров
+     * @return Результат разбора
+     */
+    public static ParsedNamedSql parse(String sql, ParamSyntax syntax) {
+        ArrayList<String> names = new ArrayList<String>();
+        String converted = SqlLexer.convert(sql, syntax, names);
+        LinkedHashMap<String, int[]> map = getParamsMap(names);
+        return new ParsedNamedSql(sql, syntax, converted, map, map.keySet().toArray(new String[map.size()]), null, null);
+    }
+
+    /**
+     * Формирует коллекцию из параметров запроса и индексов всех их вхождений
+     *
+     * @param names Имена параметров в порядке следования
+     * @return
+     */
+    private static LinkedHashMap<String, int[]> getParamsMap(List<String> names) {
+        LinkedHashMap<String, int[]> map = new LinkedHashMap<String, int[]>();
+        for (int i = 0; i < names.size(); i++) {
+            int[] indexes = map.get(names.get(i));
+            if (indexes == null) {
+                indexes = new int[1];
+            } else {
+                indexes = Arrays.copyOf(indexes, indexes.length + 1);
+            }
+            indexes[indexes.length - 1] = i + 1;
+            map.put(names.get(i), indexes);
+        }
+        return map;
+    }
+
+    /**
+     * Возвращает вариант запроса, в котором каждое вхождение параметра
+     * заменено на указанное число анонимных параметров через запятую (для
+     * условий вида IN (:ids)). Размеры остальных параметров-списков
+     * сохраняются. Варианты запроса кэшируются.
+     *
+     * @param ordinal Порядковый номер параметра
+     * @param size Число анонимных параметров
+     * @return
+     */
+    ParsedNamedSql withListSize(int ordinal, int size) {
+        if (getListSize(ordinal) == size) {
+            return this;
+        }
+        int[] sizes = listSizes == null ? new int[paramNames.length] : listSizes.clone();
+        if (listSizes == null) {
+            Arrays.fill(sizes, 1);
+        }
+        sizes[ordinal] = size;
+        return base.getShape(sizes);
+    }
+
+    private ParsedNamedSql getShape(int[] sizes) {
+        HashMap<String, Integer> lists = new HashMap<String, Integer>();
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] != 1) {
+                lists.put(paramNames[i], sizes[i]);
+            }
+        }
+        if (lists.isEmpty()) {
+            return this;
+        }
+        Shape key = new Shape(sizes);
+        ParsedNamedSql shape = shapes.get(key);
+        if (shape == null) {
+            ArrayList<String> names = new ArrayList<String>();
+            String converted = SqlLexer.convert(sql, syntax, names, lists);
+            shape = new ParsedNamedSql(sql, syntax, converted, getParamsMap(names), paramNames, this, sizes);
+            ParsedNamedSql existing = shapes.putIfAbsent(key, shape);
+            if (existing != null) {
+                shape = existing;
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Возвращает число анонимных параметров, на которое заменяется каждое
+     * вхождение параметра
+     *
+     * @param ordinal Порядковый номер параметра
+     * @return
+     */
+    int getListSize(int ordinal) {
+        return listSizes == null ? 1 : listSizes[ordinal];
+    }
+
+    /**
+     * Возвращает исходный вариант запроса (без раскрытия параметров-списков)
+     *
+     * @return
+     */
+    ParsedNamedSql getBase() {
+        return base;
+    }
+
+    /**
+     * Возвращает исходный параметрический SQL запрос
+     *
+     * @return
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Возвращает синтаксис параметров запроса
+     *
+     * @return
+     */
+    public ParamSyntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Проверяет, является ли результат разбора результатом разбора того же
+     * запроса (в том числе полученным повторным разбором)
+     *
+     * @param other Результат разбора
+     * @return
+     */
+    boolean isSameQuery(ParsedNamedSql other) {
+        return other == this || syntax == other.syntax && sql.equals(other.sql);
+    }
+
+    /**
+     * Возвращает SQL запрос с анонимными параметрами для объекта
+     * PreparedStatement
+     *
+     * @return
+     */
+    public String getConvertedSql() {
+        return convertedSql;
+    }
+
+    /**
+     * Возвращает коллекцию из параметров запроса и индексов всех их вхождений.
+     * Массивы индексов не должны изменяться.
+     *
+     * @return
+     */
+    Map<String, int[]> getParamsMap() {
+        return paramsMap;
+    }
+
+    /**
+     * Возвращает число различных параметров запроса
+     *
+     * @return
+     */
+    public int getParamCount() {
+        return paramNames.length;
+    }
+
+    /**
+     * Возвращает имя параметра по его порядковому номеру (в порядке первого
+     * вхождения в запрос, начиная с 0)
+     *
+     * @param ordinal Порядковый номер параметра
+     * @return
+     */
+    public String getParamName(int ordinal) {
+        return paramNames[ordinal];
+    }
+
+    /**
+     * Возвращает индексы всех вхождений параметра по его порядковому номеру.
+     * Для раскрытого параметра-списка индексы элементов каждого вхождения
+     * следуют подряд. Массив не должен изменяться.
+     *
+     * @param ordinal Порядковый номер параметра
+     * @return
+     */
+    int[] getParamIndexes(int ordinal) {
+        return paramIndexes[ordinal];
+    }
+
+    /**
+     * Возвращает имена параметров в порядке первого вхождения в запрос
+     *
+     * @return
+     */
+    public List<String> getParamNames() {
+        return Collections.unmodifiableList(Arrays.asList(paramNames));
+    }
+
+    /**
+     * Возвращает индексы всех вхождений параметра по его имени
+     *
+     * @param paramName Параметр
+     * @return Копия массива индексов
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException Если
+     * параметра нет в запросе
+     */
+    public int[] getParamIndexes(String paramName) throws UnknownParameterException {
+        int[] indexes = paramsMap.get(paramName);
+        if (indexes == null) {
+            throw new UnknownParameterException();
+        }
+        return indexes.clone();
+    }
+
+    /**
+     * Подготавливает запрос на соединении
+     *
+     * @param connection Соединение с базой данных
+     * @return Запрос
+     * @throws SQLException
+     */
+    public NamedPreparedStatement prepare(Connection connection) throws SQLException {
+        return new NamedPreparedStatement(connection, this);
+    }
+
+    /**
+     * Подготавливает запрос на соединении
+     *
+     * @param connection Соединение с базой данных
+     * @param resultSetType Тип результатов запроса (ResultSet.TYPE_xxx)
+     * @param resultSetConcurrency Возможность изменения результатов запроса
+     * (ResultSet.CONCUR_xxx)
+     * @return Запрос
+     * @throws SQLException
+     */
+    public NamedPreparedStatement prepare(Connection connection, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new NamedPreparedStatement(connection, this, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    /**
+     * Возвращает порядковый номер параметра по его имени
+     *
+     * @param paramName Параметр
+     * @return Порядковый номер либо -1, если параметра нет в запросе
+     */
+    int getParamOrdinal(String paramName) {
+        for (int i = 0; i < paramNames.length; i++) {
+            if (paramNames[i].equals(paramName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ключ варианта запроса: число анонимных параметров для каждого параметра
+     */
+    private static final class Shape {
+
+        private final int[] sizes;
+
+        Shape(int[] sizes) {
+            this.sizes = sizes;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Shape && Arrays.equals(sizes, ((Shape) obj).sizes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(sizes);
+        }
+    }
+}
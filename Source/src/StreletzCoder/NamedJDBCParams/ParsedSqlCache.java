@@ -0,0 +1,199 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Общий для всех соединений кэш результатов разбора параметрических SQL
+ * запросов. Повторное создание NamedPreparedStatement для уже встречавшегося
+ * запроса не требует его повторного разбора. При превышении максимального
+ * размера вытесняются давно не использовавшиеся запросы (LRU).
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ParsedSqlCache {
+
+    /**
+     * Максимальный размер кэша по умолчанию
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final Object LOCK = new Object();
+    private static final LinkedHashMap<Key, ParsedNamedSql> CACHE = new LinkedHashMap<Key, ParsedNamedSql>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ParsedNamedSql> eldest) {
+            if (size() > maxSize) {
+                evictionCount++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private static int maxSize = DEFAULT_MAX_SIZE;
+    private static long hitCount;
+    private static long missCount;
+    private static long evictionCount;
+
+    private ParsedSqlCache() {
+    }
+
+    /**
+     * Возвращает результат разбора запроса с параметрами вида :name из кэша,
+     * при отсутствии разбирает запрос и помещает результат в кэш
+     *
+     * @param sql Параметрический SQL запрос
+     * @return Результат разбора
+     */
+    static ParsedNamedSql get(String sql) {
+        return get(sql, ParamSyntax.COLON);
+    }
+
+    /**
+     * Возвращает результат разбора запроса из кэша, при отсутствии разбирает
+     * запрос и помещает результат в кэш. Один и тот же запрос, разобранный с
+     * разным синтаксисом параметров, кэшируется отдельно.
+     *
+     * @param sql Параметрический SQL запрос
+     * @param syntax Синтаксис параметров
+     * @return Результат разбора
+     */
+    static ParsedNamedSql get(String sql, ParamSyntax syntax) {
+        Key key = new Key(sql, syntax);
+        ParsedNamedSql parsed;
+        synchronized (LOCK) {
+            parsed = CACHE.get(key);
+            if (parsed != null) {
+                hitCount++;
+                return parsed;
+            }
+            missCount++;
+        }
+        /*Разбор выполняется вне блокировки, чтобы не задерживать другие потоки*/
+        parsed = ParsedNamedSql.parse(sql, syntax);
+        synchronized (LOCK) {
+            if (maxSize > 0) {
+                ParsedNamedSql existing = CACHE.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                CACHE.put(key, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Устанавливает максимальное число запросов в кэше. Значение 0 отключает
+     * кэширование.
+     *
+     * @param size Максимальный размер
+     */
+    public static void setMaxSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0");
+        }
+        synchronized (LOCK) {
+            maxSize = size;
+            while (CACHE.size() > maxSize) {
+                CACHE.remove(CACHE.keySet().iterator().next());
+                evictionCount++;
+            }
+        }
+    }
+
+    /**
+     * Возвращает максимальное число запросов в кэше
+     *
+     * @return
+     */
+    public static int getMaxSize() {
+        synchronized (LOCK) {
+            return maxSize;
+        }
+    }
+
+    /**
+     * Возвращает текущее число запросов в кэше
+     *
+     * @return
+     */
+    public static int size() {
+        synchronized (LOCK) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Возвращает число обращений, обслуженных из кэша
+     *
+     * @return
+     */
+    public static long getHitCount() {
+        synchronized (LOCK) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * Возвращает число обращений, потребовавших разбора запроса
+     *
+     * @return
+     */
+    public static long getMissCount() {
+        synchronized (LOCK) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Возвращает число запросов, вытесненных из кэша
+     *
+     * @return
+     */
+    public static long getEvictionCount() {
+        synchronized (LOCK) {
+            return evictionCount;
+        }
+    }
+
+    /**
+     * Очищает кэш и сбрасывает статистику
+     */
+    public static void clear() {
+        synchronized (LOCK) {
+            CACHE.clear();
+            hitCount = 0;
+            missCount = 0;
+            evictionCount = 0;
+        }
+    }
+
+    /**
+     * Ключ кэша: запрос и синтаксис его параметров (используется также
+     * кэшем планов {@link BeanBinder})
+     */
+    static final class Key {
+
+        private final String sql;
+        private final ParamSyntax syntax;
+
+        Key(String sql, ParamSyntax syntax) {
+            this.sql = sql;
+            this.syntax = syntax;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return syntax == other.syntax && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode() * 31 + syntax.ordinal();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.SQLException;
+
+/**
+ * Установка значений параметров запроса для одной части (партиции)
+ * параллельно выполняемого запроса
+ *
+ * @param <P> Тип описания партиции
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface PartitionBinder<P> {
+
+    /**
+     * Устанавливает значения параметров запроса для партиции
+     *
+     * @param statement Запрос
+     * @param partition Партиция
+     * @throws SQLException
+     * @throws StreletzCoder.NamedJDBCParams.UnknownParameterException
+     */
+    void bind(NamedPreparedStatement statement, P partition) throws SQLException, UnknownParameterException;
+}
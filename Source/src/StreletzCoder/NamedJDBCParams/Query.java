@@ -0,0 +1,52 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметрический SQL запрос метода интерфейса доступа к данным. Для
+ * интерфейса с такими методами обработчик аннотаций
+ * {@link NamedSqlProcessor} создаёт реализацию с именем интерфейса и
+ * суффиксом Impl, которая подготавливает запросы при первом вызове и
+ * устанавливает значения параметров типизированными сеттерами по заранее
+ * вычисленным индексам, без отражения и коллекций.
+ *
+ * Запросы на выборку (SELECT, WITH, VALUES) могут возвращать List, Optional
+ * либо одно значение; каждая строка преобразуется указанным
+ * {@link #mapper()} либо, если он не указан, берётся значение первого
+ * столбца простого типа (String, числа, BigDecimal, даты). Остальные
+ * запросы возвращают void, int или long - число обработанных записей.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Query {
+
+    /**
+     * Параметрический SQL запрос
+     *
+     * @return
+     */
+    String value();
+
+    /**
+     * Синтаксис параметров запроса
+     *
+     * @return
+     */
+    ParamSyntax syntax() default ParamSyntax.COLON;
+
+    /**
+     * Преобразование строки результатов в объект (класс с конструктором без
+     * параметров); RowMapper - значение первого столбца
+     *
+     * @return
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends RowMapper> mapper() default RowMapper.class;
+}
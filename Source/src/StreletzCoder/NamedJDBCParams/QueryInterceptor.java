@@ -0,0 +1,32 @@
+package StreletzCoder.NamedJDBCParams;
+
+/**
+ * Получатель трассировки выполнения параметрических запросов. Вызывается
+ * для медленных запросов и для случайной выборки остальных
+ * ({@link QueryTracer}) в потоке, выполняющем запрос.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface QueryInterceptor {
+
+    /**
+     * Запрос, выполнение которого попало в случайную выборку, будет
+     * выполнен. Трассировка содержит значения параметров, нулевую
+     * длительность и порядковый номер -1. Медленные запросы, не попавшие в
+     * выборку, через этот метод не проходят.
+     *
+     * @param trace Трассировка выполнения
+     */
+    default void beforeExecute(QueryTrace trace) {
+    }
+
+    /**
+     * Запрос выполнен. Объект трассировки принадлежит кольцевому буферу и
+     * после возврата из метода используется повторно; для сохранения
+     * сведений следует использовать {@link QueryTrace#copy()}. Для медленных
+     * запросов, не попавших в выборку, значения параметров равны null.
+     *
+     * @param trace Трассировка выполнения
+     */
+    void afterExecute(QueryTrace trace);
+}
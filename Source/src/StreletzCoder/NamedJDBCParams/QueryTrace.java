@@ -0,0 +1,206 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Трассировка одного выполнения параметрического запроса: исходный и
+ * преобразованный SQL, значения именованных параметров, длительность и
+ * ошибка. Объекты трассировки, хранящиеся в кольцевом буфере
+ * {@link QueryTracer}, используются повторно; копия, полученная методом
+ * {@link #copy()} или {@link QueryTracer#getTraces()}, неизменна.
+ *
+ * Для пакетов сохраняются значения параметров последней добавленной строки.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class QueryTrace {
+
+    private long sequence;
+    private long timestamp;
+    private String sql;
+    private String convertedSql;
+    private int paramCount;
+    private String[] names = new String[8];
+    private Object[] values = new Object[8];
+    private long elapsedNanos;
+    private boolean slow;
+    private Throwable error;
+
+    QueryTrace() {
+    }
+
+    /**
+     * Заполняет трассировку значениями параметров текущего выполнения
+     * (recorder равен null, если значения не запоминались)
+     */
+    void fill(long sequence, ParsedNamedSql shape, BindRecorder recorder, long elapsedNanos, boolean slow, Throwable error) {
+        this.sequence = sequence;
+        this.timestamp = System.currentTimeMillis();
+        this.sql = shape.getSql();
+        this.convertedSql = shape.getConvertedSql();
+        this.elapsedNanos = elapsedNanos;
+        this.slow = slow;
+        this.error = error;
+        paramCount = shape.getParamCount();
+        if (names.length < paramCount) {
+            names = new String[paramCount];
+            values = new Object[paramCount];
+        }
+        for (int i = 0; i < paramCount; i++) {
+            names[i] = shape.getParamName(i);
+            int[] indexes = shape.getParamIndexes(i);
+            int listSize = shape.getListSize(i);
+            if (recorder == null) {
+                values[i] = null;
+            } else if (listSize == 1) {
+                values[i] = recorder.getValue(indexes[0]);
+            } else {
+                ArrayList<Object> list = new ArrayList<Object>(listSize);
+                for (int k = 0; k < listSize; k++) {
+                    list.add(recorder.getValue(indexes[k]));
+                }
+                values[i] = list;
+            }
+        }
+        Arrays.fill(values, paramCount, values.length, null);
+    }
+
+    /**
+     * Возвращает неизменную копию трассировки
+     *
+     * @return
+     */
+    public QueryTrace copy() {
+        QueryTrace copy = new QueryTrace();
+        synchronized (this) {
+            copy.sequence = sequence;
+            copy.timestamp = timestamp;
+            copy.sql = sql;
+            copy.convertedSql = convertedSql;
+            copy.paramCount = paramCount;
+            copy.names = Arrays.copyOf(names, paramCount);
+            copy.values = Arrays.copyOf(values, paramCount);
+            copy.elapsedNanos = elapsedNanos;
+            copy.slow = slow;
+            copy.error = error;
+        }
+        return copy;
+    }
+
+    /**
+     * Возвращает порядковый номер трассировки
+     *
+     * @return
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Возвращает время завершения выполнения (в миллисекундах с 1970 г.)
+     *
+     * @return
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Возвращает параметрический SQL запрос
+     *
+     * @return
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Возвращает SQL запрос с анонимными параметрами
+     *
+     * @return
+     */
+    public String getConvertedSql() {
+        return convertedSql;
+    }
+
+    /**
+     * Возвращает число именованных параметров
+     *
+     * @return
+     */
+    public int getParamCount() {
+        return paramCount;
+    }
+
+    /**
+     * Возвращает имя параметра
+     *
+     * @param ordinal Порядковый номер параметра
+     * @return
+     */
+    public String getParamName(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * Возвращает значение параметра (для параметров-списков - список
+     * значений)
+     *
+     * @param ordinal Порядковый номер параметра
+     * @return
+     */
+    public Object getParamValue(int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * Возвращает значения параметров в виде коллекции "имя параметра -
+     * значение"
+     *
+     * @return
+     */
+    public Map<String, Object> getParameters() {
+        LinkedHashMap<String, Object> parameters = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < paramCount; i++) {
+            parameters.put(names[i], values[i]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Возвращает длительность выполнения в наносекундах
+     *
+     * @return
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Проверяет, превысила ли длительность выполнения порог медленного
+     * запроса
+     *
+     * @return
+     */
+    public boolean isSlow() {
+        return slow;
+    }
+
+    /**
+     * Возвращает ошибку выполнения
+     *
+     * @return Ошибка либо null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + getParameters() + " " + elapsedNanos / 1000 + " us" + (slow ? " (slow)" : "")
+                + (error == null ? "" : " " + error);
+    }
+}
@@ -0,0 +1,252 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Трассировка выполнения параметрических запросов со значениями
+ * именованных параметров. Трассируются запросы, выполнявшиеся дольше
+ * заданного порога, и случайная выборка остальных с заданной долей.
+ * Трассировки записываются в заранее созданный кольцевой буфер и передаются
+ * получателям {@link QueryInterceptor}.
+ *
+ * Попадание выполнения в выборку определяется заранее, по завершении
+ * предыдущего выполнения запроса. Значения параметров запоминаются только
+ * для выполнений, попавших в выборку: лишь для них значения устанавливаются
+ * через посредника. Трассировки медленных запросов, не попавших в выборку,
+ * содержат SQL и длительность без значений параметров. При отключённой
+ * трассировке затраты отсутствуют.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class QueryTracer {
+
+    /**
+     * Размер кольцевого буфера трассировок по умолчанию
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    /**
+     * Порог медленного запроса по умолчанию (в миллисекундах)
+     */
+    public static final long DEFAULT_SLOW_QUERY_MILLIS = 1000;
+
+    private static volatile boolean enabled;
+    private static volatile double sampleRate;
+    private static volatile long slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_QUERY_MILLIS);
+    private static volatile QueryTrace[] buffer = createBuffer(DEFAULT_BUFFER_SIZE);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final CopyOnWriteArrayList<QueryInterceptor> INTERCEPTORS = new CopyOnWriteArrayList<QueryInterceptor>();
+
+    private QueryTracer() {
+    }
+
+    static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * Включает или отключает трассировку. Запоминание значений параметров
+     * включается или отключается со следующего выполнения каждого запроса.
+     *
+     * @param enabled Признак трассировки
+     */
+    public static void setEnabled(boolean enabled) {
+        QueryTracer.enabled = enabled;
+    }
+
+    /**
+     * Проверяет, включена ли трассировка
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Устанавливает долю трассируемых запросов, не превысивших порог
+     * медленного запроса
+     *
+     * @param rate Доля (0 - только медленные запросы, 1 - все запросы)
+     */
+    public static void setSampleRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be between 0 and 1");
+        }
+        sampleRate = rate;
+    }
+
+    /**
+     * Возвращает долю трассируемых запросов, не превысивших порог медленного
+     * запроса
+     *
+     * @return
+     */
+    public static double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Устанавливает порог медленного запроса
+     *
+     * @param threshold Длительность выполнения
+     * @param unit Единица измерения
+     */
+    public static void setSlowQueryThreshold(long threshold, TimeUnit unit) {
+        slowQueryNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * Возвращает порог медленного запроса
+     *
+     * @param unit Единица измерения
+     * @return
+     */
+    public static long getSlowQueryThreshold(TimeUnit unit) {
+        return unit.convert(slowQueryNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Устанавливает размер кольцевого буфера трассировок (округляется вверх
+     * до степени двойки). Ранее сохранённые трассировки отбрасываются.
+     *
+     * @param size Размер буфера
+     */
+    public static void setBufferSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        buffer = createBuffer(size);
+    }
+
+    /**
+     * Возвращает размер кольцевого буфера трассировок
+     *
+     * @return
+     */
+    public static int getBufferSize() {
+        return buffer.length;
+    }
+
+    /**
+     * Добавляет получателя трассировок
+     *
+     * @param interceptor Получатель
+     */
+    public static void addInterceptor(QueryInterceptor interceptor) {
+        INTERCEPTORS.addIfAbsent(interceptor);
+    }
+
+    /**
+     * Удаляет получателя трассировок
+     *
+     * @param interceptor Получатель
+     */
+    public static void removeInterceptor(QueryInterceptor interceptor) {
+        INTERCEPTORS.remove(interceptor);
+    }
+
+    /**
+     * Возвращает копии трассировок из кольцевого буфера в порядке выполнения
+     *
+     * @return
+     */
+    public static List<QueryTrace> getTraces() {
+        ArrayList<QueryTrace> traces = new ArrayList<QueryTrace>();
+        for (QueryTrace trace : buffer) {
+            QueryTrace copy = trace.copy();
+            if (copy.getSql() != null) {
+                traces.add(copy);
+            }
+        }
+        Collections.sort(traces, new Comparator<QueryTrace>() {
+            @Override
+            public int compare(QueryTrace a, QueryTrace b) {
+                return Long.compare(a.getSequence(), b.getSequence());
+            }
+        });
+        return traces;
+    }
+
+    /**
+     * Определяет, попадает ли следующее выполнение запроса в выборку
+     *
+     * @return Признак запоминания значений параметров
+     */
+    static boolean sample() {
+        if (!enabled) {
+            return false;
+        }
+        double rate = sampleRate;
+        return rate != 0 && (rate == 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Начало трассируемого выполнения. Для выполнений, попавших в выборку,
+     * вызываются получатели {@link QueryInterceptor#beforeExecute(QueryTrace)}.
+     *
+     * @param shape Вариант запроса
+     * @param recorder Значения параметров запроса (null, если выполнение не
+     * попало в выборку)
+     * @return Время начала либо DISABLED
+     */
+    static long start(ParsedNamedSql shape, BindRecorder recorder) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        if (recorder != null && !INTERCEPTORS.isEmpty()) {
+            QueryTrace trace = new QueryTrace();
+            trace.fill(-1, shape, recorder, 0, false, null);
+            for (QueryInterceptor interceptor : INTERCEPTORS) {
+                try {
+                    interceptor.beforeExecute(trace);
+                } catch (RuntimeException ex) {
+                    /*Ошибка получателя не должна влиять на выполнение запроса*/
+                }
+            }
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Завершение трассируемого выполнения: медленные выполнения и выполнения,
+     * попавшие в выборку, записываются в буфер и передаются получателям
+     */
+    static void finish(ParsedNamedSql shape, BindRecorder recorder, long start, Throwable error) {
+        if (start == DISABLED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean slow = elapsed >= slowQueryNanos;
+        if (!slow && recorder == null) {
+            return;
+        }
+        QueryTrace[] ring = buffer;
+        long sequence = SEQUENCE.getAndIncrement();
+        QueryTrace trace = ring[(int) sequence & (ring.length - 1)];
+        synchronized (trace) {
+            trace.fill(sequence, shape, recorder, elapsed, slow, error);
+            for (QueryInterceptor interceptor : INTERCEPTORS) {
+                try {
+                    interceptor.afterExecute(trace);
+                } catch (RuntimeException ex) {
+                    /*Ошибка получателя не должна влиять на выполнение запроса*/
+                }
+            }
+        }
+    }
+
+    private static QueryTrace[] createBuffer(int size) {
+        int capacity = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        QueryTrace[] ring = new QueryTrace[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new QueryTrace();
+        }
+        return ring;
+    }
+}
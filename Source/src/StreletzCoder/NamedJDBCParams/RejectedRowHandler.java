@@ -0,0 +1,26 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Получатель строк пакета, отклонённых базой данных при выполнении
+ * {@link BatchBuffer#flush(RejectedRowHandler)}
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface RejectedRowHandler {
+
+    /**
+     * Обрабатывает отклонённую строку (например, сохраняет её для
+     * последующего разбора)
+     *
+     * @param row Номер строки в буфере (начиная с 0)
+     * @param values Значения параметров строки ("имя параметра - значение")
+     * @param error Ошибка выполнения пакета, содержащего только эту строку
+     * либо эту строку среди прочих (если драйвер сообщает о результатах
+     * отдельных строк)
+     * @throws SQLException Прерывает выполнение пакета
+     */
+    void rejected(int row, Map<String, Object> values, SQLException error) throws SQLException;
+}
@@ -0,0 +1,93 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Столбцы результатов запроса. Сведения о столбцах читаются из
+ * ResultSetMetaData один раз, после чего индекс столбца по его имени
+ * определяется без обращения к драйверу.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class ResultColumns {
+
+    private final String[] labels;
+    private final int[] types;
+    private final HashMap<String, Integer> indexes;
+
+    /**
+     * Конструктор
+     *
+     * @param metaData Сведения о столбцах результатов запроса
+     * @throws SQLException
+     */
+    public ResultColumns(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        labels = new String[count];
+        types = new int[count];
+        indexes = new HashMap<String, Integer>(count * 2);
+        for (int i = 0; i < count; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+            String key = labels[i].toLowerCase(Locale.ROOT);
+            if (!indexes.containsKey(key)) {
+                indexes.put(key, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param rs Результаты запроса
+     * @throws SQLException
+     */
+    public ResultColumns(ResultSet rs) throws SQLException {
+        this(rs.getMetaData());
+    }
+
+    /**
+     * Возвращает число столбцов
+     *
+     * @return
+     */
+    public int getColumnCount() {
+        return labels.length;
+    }
+
+    /**
+     * Возвращает индекс столбца (начиная с 1) по его имени без учёта регистра.
+     * При совпадении имён возвращается первый столбец.
+     *
+     * @param label Имя столбца
+     * @return Индекс столбца либо 0, если столбца нет
+     */
+    public int indexOf(String label) {
+        Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+        return index == null ? 0 : index;
+    }
+
+    /**
+     * Возвращает имя столбца
+     *
+     * @param index Индекс столбца (начиная с 1)
+     * @return
+     */
+    public String getLabel(int index) {
+        return labels[index - 1];
+    }
+
+    /**
+     * Возвращает тип SQL столбца (java.sql.Types)
+     *
+     * @param index Индекс столбца (начиная с 1)
+     * @return
+     */
+    public int getType(int index) {
+        return types[index - 1];
+    }
+}
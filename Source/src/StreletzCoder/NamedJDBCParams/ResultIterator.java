@@ -0,0 +1,77 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Последовательный перебор результатов запроса с преобразованием строк в
+ * объекты по мере чтения. Результаты запроса закрываются по достижении
+ * последней строки либо при вызове {@link #close()}.
+ *
+ * @param <T> Тип объекта
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private final ResultColumns columns;
+    private boolean fetched;
+    private boolean hasRow;
+
+    /**
+     * Конструктор
+     *
+     * @param rs Результаты запроса
+     * @param mapper Преобразование строки в объект
+     * @throws SQLException
+     */
+    public ResultIterator(ResultSet rs, RowMapper<T> mapper) throws SQLException {
+        this.rs = rs;
+        this.mapper = mapper;
+        this.columns = new ResultColumns(rs);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!fetched) {
+            try {
+                hasRow = rs.next();
+                fetched = true;
+                if (!hasRow) {
+                    rs.close();
+                }
+            } catch (SQLException ex) {
+                throw new UncheckedSQLException(ex);
+            }
+        }
+        return hasRow;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        try {
+            return mapper.mapRow(rs, columns);
+        } catch (SQLException ex) {
+            throw new UncheckedSQLException(ex);
+        }
+    }
+
+    /**
+     * Закрывает результаты запроса
+     */
+    @Override
+    public void close() {
+        try {
+            rs.close();
+        } catch (SQLException ex) {
+            throw new UncheckedSQLException(ex);
+        }
+    }
+}
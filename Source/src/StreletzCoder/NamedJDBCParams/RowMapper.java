@@ -0,0 +1,25 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Преобразование текущей строки результатов запроса в объект
+ *
+ * @param <T> Тип объекта
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Преобразует текущую строку результатов запроса в объект. Метод не должен
+     * перемещать курсор.
+     *
+     * @param rs Результаты запроса
+     * @param columns Столбцы результатов запроса (один и тот же объект для
+     * всех строк, поэтому найденные по нему индексы можно сохранять)
+     * @return Объект
+     * @throws SQLException
+     */
+    T mapRow(ResultSet rs, ResultColumns columns) throws SQLException;
+}
@@ -0,0 +1,411 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Посимвольный разбор параметрического SQL запроса за один проход. Строковые
+ * литералы, идентификаторы в кавычках, комментарии, приведения типов
+ * PostgreSQL (::) и строки в долларовых кавычках пропускаются без поиска в них
+ * параметров. Синтаксис параметров задаётся {@link ParamSyntax}.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+final class SqlLexer {
+
+    private static final char REPLACEMENT = '?';
+    private static final char ESCAPE = '\\';
+    private static final String FRAGMENT_START = "/*[";
+    private static final String FRAGMENT_END = "]*/";
+    private static final byte NAME_START = 1;
+    private static final byte NAME_PART = 2;
+    /**
+     * Классы символов ASCII в именах параметров
+     */
+    private static final byte[] CHAR_CLASSES = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] = NAME_START | NAME_PART;
+            CHAR_CLASSES[Character.toUpperCase(c)] = NAME_START | NAME_PART;
+        }
+        CHAR_CLASSES['_'] = NAME_START | NAME_PART;
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] = NAME_PART;
+        }
+    }
+
+    private SqlLexer() {
+    }
+
+    /**
+     * Преобразует исходный SQL запрос в SQL запрос с анонимными параметрами
+     *
+     * @param sql Исходный SQL запрос
+     * @param syntax Синтаксис параметров
+     * @param names Список, в который в порядке следования добавляются имена
+     * найденных параметров
+     * @return Преобразованный SQL запрос (исходная строка, если параметров нет)
+     */
+    static String convert(String sql, ParamSyntax syntax, List<String> names) {
+        return convert(sql, syntax, names, null);
+    }
+
+    /**
+     * Преобразует исходный SQL запрос в SQL запрос с анонимными параметрами,
+     * заменяя каждое вхождение параметров-списков на заданное число анонимных
+     * параметров через запятую
+     *
+     * @param sql Исходный SQL запрос
+     * @param syntax Синтаксис параметров
+     * @param names Список, в который в порядке следования добавляются имена
+     * найденных параметров (имя параметра-списка добавляется по разу на
+     * каждый его элемент)
+     * @param listSizes Число элементов параметров-списков (может быть null)
+     * @return Преобразованный SQL запрос (исходная строка, если параметров нет)
+     */
+    static String convert(String sql, ParamSyntax syntax, List<String> names, Map<String, Integer> listSizes) {
+        char prefix = syntax.getPrefix();
+        int length = sql.length();
+        StringBuilder converted = null;
+        int[] token = new int[3];
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            int next = skipNonCode(sql, i);
+            if (next != i) {
+                i = next;
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == ESCAPE) {
+                if (isNext(sql, i, prefix) && findParameter(sql, i + 1, syntax, token)) {
+                    /*Экранированный параметр: удаляется только обратная косая черта*/
+                    if (converted == null) {
+                        converted = new StringBuilder(length);
+                    }
+                    converted.append(sql, copied, i);
+                    copied = i + 1;
+                    i = token[2];
+                } else {
+                    i++;
+                }
+                continue;
+            }
+            if (c != prefix) {
+                i++;
+                continue;
+            }
+            if (isNext(sql, i, prefix) && syntax != ParamSyntax.BRACES) {
+                /*Приведение типа PostgreSQL (::) либо системная переменная (@@name)*/
+                i += 2;
+                continue;
+            }
+            if (!findParameter(sql, i, syntax, token)) {
+                i++;
+                continue;
+            }
+            if (converted == null) {
+                converted = new StringBuilder(length);
+            }
+            converted.append(sql, copied, i).append(REPLACEMENT);
+            String name = sql.substring(token[0], token[1]);
+            names.add(name);
+            Integer size = listSizes == null ? null : listSizes.get(name);
+            if (size != null) {
+                for (int k = 1; k < size; k++) {
+                    converted.append(", ").append(REPLACEMENT);
+                    names.add(name);
+                }
+            }
+            copied = token[2];
+            i = token[2];
+        }
+        if (converted == null) {
+            return sql;
+        }
+        return converted.append(sql, copied, length).toString();
+    }
+
+    /**
+     * Распознаёт параметр, начинающийся символом-префиксом в указанной
+     * позиции
+     *
+     * @param sql SQL запрос
+     * @param i Позиция символа-префикса
+     * @param syntax Синтаксис параметров
+     * @param token Заполняется позициями начала и конца имени и символа,
+     * следующего за параметром
+     * @return false, если в позиции нет параметра
+     */
+    private static boolean findParameter(String sql, int i, ParamSyntax syntax, int[] token) {
+        if (syntax == ParamSyntax.BRACES) {
+            if (!isNext(sql, i, '{')) {
+                return false;
+            }
+            int start = skipSpaces(sql, i + 2);
+            int end = nameEnd(sql, start, true);
+            if (end == start) {
+                return false;
+            }
+            int close = sql.indexOf('}', end);
+            int after = skipSpaces(sql, end);
+            if (close < 0 || after != close && sql.charAt(after) != ',') {
+                return false;
+            }
+            token[0] = start;
+            token[1] = end;
+            token[2] = close + 1;
+            return true;
+        }
+        if (syntax == ParamSyntax.DOLLAR && i > 0 && isIdentifierPart(sql.charAt(i - 1))) {
+            /*Символ $ внутри идентификатора (v$session)*/
+            return false;
+        }
+        int end = nameEnd(sql, i + 1, false);
+        if (end == i + 1) {
+            return false;
+        }
+        token[0] = i + 1;
+        token[1] = end;
+        token[2] = end;
+        return true;
+    }
+
+    /**
+     * Поиск необязательных фрагментов вида /*[ ... ]*&#47;
+     *
+     * @param sql SQL запрос
+     * @return Для каждого фрагмента позиции начала фрагмента, начала и конца
+     * его содержимого и символа, следующего за фрагментом
+     */
+    static List<int[]> findFragments(String sql) {
+        ArrayList<int[]> fragments = new ArrayList<int[]>();
+        int i = 0;
+        while (i < sql.length()) {
+            if (sql.startsWith(FRAGMENT_START, i)) {
+                int end = sql.indexOf(FRAGMENT_END, i + FRAGMENT_START.length());
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed " + FRAGMENT_START + " at position " + i + ": " + sql);
+                }
+                fragments.add(new int[]{i, i + FRAGMENT_START.length(), end, end + FRAGMENT_END.length()});
+                i = end + FRAGMENT_END.length();
+                continue;
+            }
+            int next = skipNonCode(sql, i);
+            i = next == i ? i + 1 : next;
+        }
+        return fragments;
+    }
+
+    /**
+     * Поиск списка значений строки в запросе INSERT ... VALUES (...)
+     *
+     * @param sql SQL запрос
+     * @return Позиции открывающей скобки и символа, следующего за
+     * закрывающей, либо null, если список значений не найден
+     */
+    static int[] findValuesRow(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            int next = skipNonCode(sql, i);
+            if (next != i) {
+                i = next;
+                continue;
+            }
+            if (sql.regionMatches(true, i, "VALUES", 0, 6)
+                    && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+                    && (i + 6 == sql.length() || !isIdentifierPart(sql.charAt(i + 6)))) {
+                int start = i + 6;
+                while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+                    start++;
+                }
+                if (start < sql.length() && sql.charAt(start) == '(') {
+                    int end = closingParenthesis(sql, start);
+                    return end < 0 ? null : new int[]{start, end + 1};
+                }
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /**
+     * Поиск закрывающей скобки с учётом вложенных скобок, литералов и
+     * комментариев
+     *
+     * @return Позиция закрывающей скобки либо -1
+     */
+    private static int closingParenthesis(String sql, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < sql.length()) {
+            int next = skipNonCode(sql, i);
+            if (next != i) {
+                i = next;
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Пропускает литерал, идентификатор в кавычках или комментарий,
+     * начинающийся в указанной позиции
+     *
+     * @return Позиция символа, следующего за пропущенным фрагментом, либо
+     * исходная позиция
+     */
+    private static int skipNonCode(String sql, int i) {
+        char c = sql.charAt(i);
+        switch (c) {
+            case '\'':
+                return skipQuoted(sql, i, c, isEscapeString(sql, i));
+            case '"':
+            case '`':
+                return skipQuoted(sql, i, c, false);
+            case '-':
+                return isNext(sql, i, '-') ? skipLineComment(sql, i + 2) : i;
+            case '/':
+                return isNext(sql, i, '*') ? skipBlockComment(sql, i + 2) : i;
+            case '$':
+                int end = skipDollarQuoted(sql, i);
+                return end == i + 1 ? i : end;
+            default:
+                return i;
+        }
+    }
+
+    /**
+     * Определяет конец имени параметра: латинская буква или символ
+     * подчёркивания, за которыми следуют латинские буквы, цифры и символы
+     * подчёркивания
+     *
+     * @param sql SQL запрос
+     * @param start Позиция первого символа имени
+     * @param dotted Допускаются ли составные имена через точку
+     * @return Позиция символа, следующего за именем (start, если имени нет)
+     */
+    private static int nameEnd(String sql, int start, boolean dotted) {
+        int length = sql.length();
+        if (start >= length || !isCharClass(sql.charAt(start), NAME_START)) {
+            return start;
+        }
+        int i = start + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isCharClass(c, NAME_PART)
+                    || dotted && c == '.' && i + 1 < length && isCharClass(sql.charAt(i + 1), NAME_START)) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isCharClass(char c, byte charClass) {
+        return c < CHAR_CLASSES.length && (CHAR_CLASSES[c] & charClass) != 0;
+    }
+
+    private static int skipSpaces(String sql, int i) {
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isNext(String sql, int i, char c) {
+        return i + 1 < sql.length() && sql.charAt(i + 1) == c;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return c == '_' || c == '$' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Проверяет, является ли литерал строкой PostgreSQL с escape-
+     * последовательностями (E'...')
+     */
+    private static boolean isEscapeString(String sql, int quote) {
+        if (quote == 0) {
+            return false;
+        }
+        char prefix = sql.charAt(quote - 1);
+        return (prefix == 'E' || prefix == 'e') && (quote == 1 || !isIdentifierPart(sql.charAt(quote - 2)));
+    }
+
+    /**
+     * Пропускает строковый литерал или идентификатор в кавычках. Удвоенная
+     * кавычка считается частью литерала.
+     *
+     * @return Позиция символа, следующего за закрывающей кавычкой
+     */
+    private static int skipQuoted(String sql, int start, char quote, boolean backslashEscapes) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && backslashEscapes) {
+                i += 2;
+            } else if (c == quote) {
+                if (!isNext(sql, i, quote)) {
+                    return i + 1;
+                }
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static int skipLineComment(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    private static int skipBlockComment(String sql, int start) {
+        int end = sql.indexOf("*/", start);
+        return end < 0 ? sql.length() : end + 2;
+    }
+
+    /**
+     * Пропускает строку в долларовых кавычках PostgreSQL ($$...$$ или
+     * $tag$...$tag$)
+     *
+     * @return Позиция символа, следующего за закрывающим тегом, либо за
+     * символом $, если он не открывает такую строку
+     */
+    private static int skipDollarQuoted(String sql, int start) {
+        if (start > 0 && isIdentifierPart(sql.charAt(start - 1))) {
+            return start + 1;
+        }
+        int i = start + 1;
+        if (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+            return start + 1;
+        }
+        while (i < sql.length() && sql.charAt(i) != '$' && isIdentifierPart(sql.charAt(i))) {
+            i++;
+        }
+        if (i >= sql.length() || sql.charAt(i) != '$') {
+            return start + 1;
+        }
+        int tagLength = i - start + 1;
+        int pos = i + 1;
+        while ((pos = sql.indexOf('$', pos)) >= 0) {
+            if (sql.regionMatches(pos, sql, start, tagLength)) {
+                return pos + tagLength;
+            }
+            pos++;
+        }
+        return sql.length();
+    }
+}
@@ -0,0 +1,131 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика выполнения одного параметрического запроса. Длительности
+ * хранятся в наносекундах.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class SqlStatistics {
+
+    private final String sql;
+    private final Histogram prepareTime = new Histogram();
+    private final Histogram bindTime = new Histogram();
+    private final Histogram executeTime = new Histogram();
+    private final Histogram batchSize = new Histogram();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    SqlStatistics(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * Возвращает параметрический SQL запрос
+     *
+     * @return
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Возвращает число выполнений запроса (включая пакеты)
+     *
+     * @return
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * Возвращает число выполнений, завершившихся ошибкой
+     *
+     * @return
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Возвращает общее число обработанных записей
+     *
+     * @return
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * Возвращает гистограмму длительности подготовки запроса
+     *
+     * @return
+     */
+    public Histogram getPrepareTime() {
+        return prepareTime;
+    }
+
+    /**
+     * Возвращает гистограмму длительности установки значений параметров
+     *
+     * @return
+     */
+    public Histogram getBindTime() {
+        return bindTime;
+    }
+
+    /**
+     * Возвращает гистограмму длительности выполнения запроса
+     *
+     * @return
+     */
+    public Histogram getExecuteTime() {
+        return executeTime;
+    }
+
+    /**
+     * Возвращает гистограмму числа строк пакетов
+     *
+     * @return
+     */
+    public Histogram getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return sql + ": executions=" + getExecutionCount() + ", errors=" + getErrorCount()
+                + ", rows=" + getRowCount() + ", execute [" + executeTime + "]";
+    }
+
+    void executed(long nanos, long count) {
+        executions.increment();
+        executeTime.record(nanos);
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    void batchExecuted(long nanos, int size, long count) {
+        batchSize.record(size);
+        executed(nanos, count);
+    }
+
+    void failed(long nanos) {
+        errors.increment();
+        executeTime.record(nanos);
+    }
+
+    void reset() {
+        prepareTime.reset();
+        bindTime.reset();
+        executeTime.reset();
+        batchSize.reset();
+        executions.reset();
+        errors.reset();
+        rows.reset();
+    }
+}
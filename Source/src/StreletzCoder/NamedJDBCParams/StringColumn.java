@@ -0,0 +1,130 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Столбец строковых значений со словарным кодированием: каждое различное
+ * значение хранится один раз, строки столбца содержат номера значений в
+ * словаре
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public final class StringColumn extends Column {
+
+    /**
+     * Номер значения NULL
+     */
+    public static final int NULL_CODE = -1;
+
+    private int[][] chunks = new int[0][];
+    private final ArrayList<String> dictionary = new ArrayList<String>();
+    private final HashMap<String, Integer> codes = new HashMap<String, Integer>();
+
+    StringColumn() {
+    }
+
+    /**
+     * Возвращает значение
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return Значение либо null
+     */
+    public String getString(int row) {
+        return isNull(row) ? null : dictionary.get(chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK]);
+    }
+
+    /**
+     * Возвращает номер значения в словаре
+     *
+     * @param row Номер строки (начиная с 0)
+     * @return Номер значения ({@link #NULL_CODE} для NULL)
+     */
+    public int getCode(int row) {
+        checkRow(row);
+        return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    /**
+     * Возвращает словарь различных значений столбца
+     *
+     * @return
+     */
+    public List<String> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return getString(row);
+    }
+
+    /**
+     * Записывает значение в строку
+     *
+     * @param row Номер строки
+     * @param value Значение
+     */
+    void set(int row, String value) {
+        if (value == null) {
+            setNull(row);
+            return;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        setNotNull(row);
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = code;
+    }
+
+    @Override
+    void bind(PreparedStatement statement, int[] indexes, int row) throws SQLException {
+        if (isNull(row)) {
+            for (int index : indexes) {
+                statement.setNull(index, Types.VARCHAR);
+            }
+            return;
+        }
+        String value = dictionary.get(chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK]);
+        for (int index : indexes) {
+            statement.setString(index, value);
+        }
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException {
+        set(row, rs.getString(index));
+    }
+
+    @Override
+    void clear() {
+        super.clear();
+        dictionary.clear();
+        codes.clear();
+    }
+
+    @Override
+    void resetValue(int row) {
+        chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = NULL_CODE;
+    }
+
+    @Override
+    void allocateChunk(int chunk) {
+        chunks[chunk] = new int[CHUNK_SIZE];
+    }
+
+    @Override
+    void growChunks(int count) {
+        chunks = Arrays.copyOf(chunks, count);
+    }
+}
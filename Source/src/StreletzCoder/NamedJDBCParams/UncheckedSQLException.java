@@ -0,0 +1,23 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.SQLException;
+
+/**
+ * Непроверяемая обёртка для SQLException, возникающего при переборе
+ * результатов запроса через Iterator или Stream
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause);
+    }
+
+    @Override
+    public SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -13,5 +13,9 @@ public class UnknownParameterException extends Exception {
     public UnknownParameterException() {
         
     }
+
+    public UnknownParameterException(String message) {
+        super(message);
+    }
     
 }
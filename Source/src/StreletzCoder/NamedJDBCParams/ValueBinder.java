@@ -0,0 +1,360 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Установка значения параметра запроса типизированным сеттером
+ * PreparedStatement, выбранным по классу значения. Сеттер для каждого класса
+ * определяется один раз по заранее составленной таблице (с учётом
+ * суперклассов и интерфейсов) и кэшируется.
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+abstract class ValueBinder {
+
+    private static final Map<Class<?>, ValueBinder> TABLE = new HashMap<Class<?>, ValueBinder>();
+    private static final ValueBinder OBJECT = new ValueBinder(Types.JAVA_OBJECT) {
+        @Override
+        void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+            pstmt.setObject(index, value);
+        }
+    };
+    private static final ClassValue<ValueBinder> BINDERS = new ClassValue<ValueBinder>() {
+        @Override
+        protected ValueBinder computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    static {
+        TABLE.put(Integer.class, new ValueBinder(Types.INTEGER) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setInt(index, (Integer) value);
+            }
+        });
+        TABLE.put(Long.class, new ValueBinder(Types.BIGINT) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setLong(index, (Long) value);
+            }
+        });
+        TABLE.put(Short.class, new ValueBinder(Types.SMALLINT) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setShort(index, (Short) value);
+            }
+        });
+        TABLE.put(Byte.class, new ValueBinder(Types.TINYINT) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setByte(index, (Byte) value);
+            }
+        });
+        TABLE.put(Double.class, new ValueBinder(Types.DOUBLE) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setDouble(index, (Double) value);
+            }
+        });
+        TABLE.put(Float.class, new ValueBinder(Types.REAL) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setFloat(index, (Float) value);
+            }
+        });
+        TABLE.put(Boolean.class, new ValueBinder(Types.BOOLEAN) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBoolean(index, (Boolean) value);
+            }
+        });
+        TABLE.put(String.class, new ValueBinder(Types.VARCHAR) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setString(index, (String) value);
+            }
+        });
+        TABLE.put(Character.class, new ValueBinder(Types.CHAR) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setString(index, value.toString());
+            }
+        });
+        TABLE.put(Enum.class, new ValueBinder(Types.VARCHAR) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setString(index, ((Enum<?>) value).name());
+            }
+        });
+        TABLE.put(BigDecimal.class, new ValueBinder(Types.DECIMAL) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBigDecimal(index, (BigDecimal) value);
+            }
+        });
+        TABLE.put(BigInteger.class, new ValueBinder(Types.DECIMAL) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBigDecimal(index, new BigDecimal((BigInteger) value));
+            }
+        });
+        TABLE.put(byte[].class, new ValueBinder(Types.VARBINARY) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBytes(index, (byte[]) value);
+            }
+        });
+        TABLE.put(Date.class, new ValueBinder(Types.DATE) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setDate(index, (Date) value);
+            }
+        });
+        TABLE.put(Time.class, new ValueBinder(Types.TIME) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setTime(index, (Time) value);
+            }
+        });
+        TABLE.put(Timestamp.class, new ValueBinder(Types.TIMESTAMP) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setTimestamp(index, (Timestamp) value);
+            }
+        });
+        TABLE.put(java.util.Date.class, new ValueBinder(Types.TIMESTAMP) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+            }
+        });
+        TABLE.put(Calendar.class, new ValueBinder(Types.TIMESTAMP) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                Calendar calendar = (Calendar) value;
+                pstmt.setTimestamp(index, new Timestamp(calendar.getTimeInMillis()), calendar);
+            }
+        });
+        TABLE.put(Instant.class, new ValueBinder(Types.TIMESTAMP) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setTimestamp(index, Timestamp.from((Instant) value));
+            }
+        });
+        TABLE.put(LocalDate.class, new SqlTypeBinder(Types.DATE));
+        TABLE.put(LocalTime.class, new SqlTypeBinder(Types.TIME));
+        TABLE.put(LocalDateTime.class, new SqlTypeBinder(Types.TIMESTAMP));
+        TABLE.put(OffsetTime.class, new SqlTypeBinder(Types.TIME_WITH_TIMEZONE));
+        TABLE.put(OffsetDateTime.class, new SqlTypeBinder(Types.TIMESTAMP_WITH_TIMEZONE));
+        TABLE.put(Array.class, new ValueBinder(Types.ARRAY) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setArray(index, (Array) value);
+            }
+        });
+        TABLE.put(Blob.class, new ValueBinder(Types.BLOB) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBlob(index, (Blob) value);
+            }
+        });
+        TABLE.put(NClob.class, new ValueBinder(Types.NCLOB) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setNClob(index, (NClob) value);
+            }
+        });
+        TABLE.put(Clob.class, new ValueBinder(Types.CLOB) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setClob(index, (Clob) value);
+            }
+        });
+        TABLE.put(Ref.class, new ValueBinder(Types.REF) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setRef(index, (Ref) value);
+            }
+        });
+        TABLE.put(RowId.class, new ValueBinder(Types.ROWID) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setRowId(index, (RowId) value);
+            }
+        });
+        TABLE.put(SQLXML.class, new ValueBinder(Types.SQLXML) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setSQLXML(index, (SQLXML) value);
+            }
+        });
+        TABLE.put(URL.class, new ValueBinder(Types.DATALINK) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setURL(index, (URL) value);
+            }
+        });
+        TABLE.put(InputStream.class, new ValueBinder(Types.LONGVARBINARY) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setBinaryStream(index, (InputStream) value);
+            }
+        });
+        TABLE.put(Reader.class, new ValueBinder(Types.LONGVARCHAR) {
+            @Override
+            void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+                pstmt.setCharacterStream(index, (Reader) value);
+            }
+        });
+    }
+
+    private final int sqlType;
+
+    ValueBinder(int sqlType) {
+        this.sqlType = sqlType;
+    }
+
+    /**
+     * Возвращает сеттер для значений указанного класса
+     *
+     * @param type Класс значения
+     * @return
+     */
+    static ValueBinder forClass(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Поиск сеттера по таблице: сначала по самому классу, затем по его
+     * суперклассам и реализуемым интерфейсам
+     */
+    private static ValueBinder lookup(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            ValueBinder binder = TABLE.get(c);
+            if (binder != null) {
+                return binder;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> contract : c.getInterfaces()) {
+                ValueBinder binder = lookup(contract);
+                if (binder != OBJECT) {
+                    return binder;
+                }
+            }
+        }
+        return OBJECT;
+    }
+
+    /**
+     * Устанавливает значение (в том числе NULL) во все указанные позиции
+     *
+     * @param pstmt Запрос
+     * @param indexes Индексы параметров
+     * @param value Значение
+     * @throws SQLException
+     */
+    static void bindValue(PreparedStatement pstmt, int[] indexes, Object value) throws SQLException {
+        if (value == null) {
+            for (int index : indexes) {
+                pstmt.setNull(index, Types.NULL);
+            }
+        } else {
+            forClass(value.getClass()).bind(pstmt, indexes, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение (в том числе NULL) в одну позицию
+     *
+     * @param pstmt Запрос
+     * @param index Индекс параметра
+     * @param value Значение
+     * @throws SQLException
+     */
+    static void bindValue(PreparedStatement pstmt, int index, Object value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, Types.NULL);
+        } else {
+            forClass(value.getClass()).bind(pstmt, index, value);
+        }
+    }
+
+    /**
+     * Устанавливает значение во все указанные позиции. NULL устанавливается с
+     * типом SQL, соответствующим классу сеттера.
+     *
+     * @param pstmt Запрос
+     * @param indexes Индексы параметров
+     * @param value Значение
+     * @throws SQLException
+     */
+    final void bind(PreparedStatement pstmt, int[] indexes, Object value) throws SQLException {
+        if (value == null) {
+            for (int index : indexes) {
+                pstmt.setNull(index, sqlType == Types.JAVA_OBJECT ? Types.NULL : sqlType);
+            }
+        } else {
+            for (int index : indexes) {
+                bind(pstmt, index, value);
+            }
+        }
+    }
+
+    /**
+     * Устанавливает непустое значение в одну позицию
+     *
+     * @param pstmt Запрос
+     * @param index Индекс параметра
+     * @param value Значение
+     * @throws SQLException
+     */
+    abstract void bind(PreparedStatement pstmt, int index, Object value) throws SQLException;
+
+    /**
+     * Установка значения через setObject с явным указанием кода типа SQL
+     * (java.sql.Types). Перегрузка setObject с SQLType не используется: это
+     * метод JDBC 4.2 по умолчанию, который переопределяют не все драйверы.
+     */
+    private static final class SqlTypeBinder extends ValueBinder {
+
+        private final int targetSqlType;
+
+        SqlTypeBinder(int targetSqlType) {
+            super(targetSqlType);
+            this.targetSqlType = targetSqlType;
+        }
+
+        @Override
+        void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+            pstmt.setObject(index, value, targetSqlType);
+        }
+    }
+}
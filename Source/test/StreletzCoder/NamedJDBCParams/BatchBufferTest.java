@@ -0,0 +1,140 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Выполнение буфера пакета с отделением отклонённых строк при включённой и
+ * отключённой автоматической фиксации транзакций (H2)
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class BatchBufferTest {
+
+    private Connection con;
+    private NamedPreparedStatement statement;
+    private ParamSlot id;
+    private ParamSlot name;
+
+    @Before
+    public void setUp() throws Exception {
+        con = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement ddl = con.createStatement()) {
+            ddl.execute("CREATE TABLE t (id BIGINT PRIMARY KEY CHECK (id <> 3 AND id <> 7), name VARCHAR(10))");
+        }
+        statement = new NamedPreparedStatement(con, "INSERT INTO t (id, name) VALUES (:id, :name)");
+        id = statement.getParamSlot("id");
+        name = statement.getParamSlot("name");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        statement.close();
+        con.close();
+    }
+
+    private void addRows(int from, int to) throws UnknownParameterException {
+        BatchBuffer buffer = statement.getBatchBuffer();
+        for (int i = from; i < to; i++) {
+            buffer.setLong(id, i);
+            buffer.setString(name, i % 2 == 0 ? null : "n" + i);
+            buffer.addRow();
+        }
+    }
+
+    private int count() throws SQLException {
+        try (Statement query = con.createStatement(); ResultSet rs = query.executeQuery("SELECT COUNT(*) FROM t")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static RejectedRowHandler collector(final List<Object> rejected) {
+        return new RejectedRowHandler() {
+            @Override
+            public void rejected(int row, Map<String, Object> values, SQLException error) {
+                rejected.add(values.get("id"));
+            }
+        };
+    }
+
+    private void assertRejectsBadRows() throws SQLException, UnknownParameterException {
+        addRows(0, 10);
+        List<Object> rejected = new ArrayList<Object>();
+        int[] counts = statement.getBatchBuffer().flush(collector(rejected));
+        assertEquals(Statement.EXECUTE_FAILED, counts[3]);
+        assertEquals(Statement.EXECUTE_FAILED, counts[7]);
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[9]);
+        List<Object> expected = new ArrayList<Object>();
+        expected.add(3L);
+        expected.add(7L);
+        assertEquals(expected, rejected);
+        assertEquals(0, statement.getBatchBuffer().getRowCount());
+    }
+
+    @Test
+    public void flushWithAutoCommitRejectsOnlyBadRows() throws Exception {
+        assertRejectsBadRows();
+        assertTrue(con.getAutoCommit());
+        assertEquals(8, count());
+    }
+
+    @Test
+    public void flushInTransactionRejectsOnlyBadRows() throws Exception {
+        con.setAutoCommit(false);
+        assertRejectsBadRows();
+        con.commit();
+        assertEquals(8, count());
+    }
+
+    @Test
+    public void handlerErrorWithAutoCommitKeepsRowsAndCommitsNothing() throws Exception {
+        addRows(0, 5);
+        try {
+            statement.getBatchBuffer().flush(new RejectedRowHandler() {
+                @Override
+                public void rejected(int row, Map<String, Object> values, SQLException error) throws SQLException {
+                    throw new SQLException("handler", error);
+                }
+            });
+            fail();
+        } catch (SQLException ex) {
+            assertEquals("handler", ex.getMessage());
+        }
+        assertTrue(con.getAutoCommit());
+        assertEquals(0, count());
+        assertEquals(5, statement.getBatchBuffer().getRowCount());
+        List<Object> rejected = new ArrayList<Object>();
+        statement.getBatchBuffer().flush(collector(rejected));
+        assertEquals(4, count());
+        assertEquals(1, rejected.size());
+    }
+
+    @Test
+    public void flushWithoutHandlerExecutesAllRows() throws Exception {
+        addRows(10, 15);
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1}, statement.getBatchBuffer().flush());
+        assertEquals(5, count());
+    }
+
+    @Test
+    public void clearBatchDiscardsBufferedRows() throws Exception {
+        addRows(10, 12);
+        statement.clearBatch();
+        assertEquals(0, statement.getBatchBuffer().getRowCount());
+    }
+}
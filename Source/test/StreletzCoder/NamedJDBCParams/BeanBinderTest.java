@@ -0,0 +1,69 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Установка значений параметров из свойств объекта для одного и того же
+ * текста запроса с разным синтаксисом параметров
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class BeanBinderTest {
+
+    public static class Bean {
+
+        public int getA() {
+            return 1;
+        }
+
+        public int getB() {
+            return 2;
+        }
+    }
+
+    /**
+     * Запрос, запоминающий значения параметров по индексам
+     */
+    private static PreparedStatement recordingStatement(final Map<Integer, Object> values) {
+        return (PreparedStatement) Proxy.newProxyInstance(BeanBinderTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2) {
+                    values.put((Integer) args[0], args[1]);
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Map<Integer, Object> bind(String sql, ParamSyntax syntax) throws Exception {
+        ParsedNamedSql parsedSql = ParsedNamedSql.parse(sql, syntax);
+        Map<Integer, Object> values = new HashMap<Integer, Object>();
+        BeanBinder.forClass(Bean.class, parsedSql).bind(recordingStatement(values), parsedSql, new Bean());
+        return values;
+    }
+
+    @Test
+    public void bindsPerSyntaxForSameSqlText() throws Exception {
+        String sql = "SELECT :a, @b";
+        assertEquals(1, bind(sql, ParamSyntax.COLON).get(1));
+        assertEquals(2, bind(sql, ParamSyntax.AT_SIGN).get(1));
+        assertEquals(1, bind(sql, ParamSyntax.COLON).get(1));
+    }
+
+    @Test
+    public void bindsEveryOccurrence() throws Exception {
+        Map<Integer, Object> values = bind("SELECT :b, :a, :b", ParamSyntax.COLON);
+        assertEquals(2, values.get(1));
+        assertEquals(1, values.get(2));
+        assertEquals(2, values.get(3));
+    }
+}
@@ -0,0 +1,113 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Установка значений именованных параметров и выполнение запросов (H2)
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class NamedPreparedStatementTest {
+
+    private Connection con;
+
+    @Before
+    public void setUp() throws Exception {
+        con = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement ddl = con.createStatement()) {
+            ddl.execute("CREATE TABLE t (id INT, a INT, d DATE)");
+            ddl.execute("INSERT INTO t VALUES (1, 10, DATE '2016-11-11'), (2, 20, NULL), (3, 30, NULL), (4, 40, NULL)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        con.close();
+    }
+
+    private static int sum(ResultSet rs) throws SQLException {
+        int total = 0;
+        try {
+            while (rs.next()) {
+                total += rs.getInt(1);
+            }
+        } finally {
+            rs.close();
+        }
+        return total;
+    }
+
+    @Test
+    public void typedSetObjectBindsValueForEveryOccurrence() throws Exception {
+        try (NamedPreparedStatement statement = new NamedPreparedStatement(con, "SELECT a FROM t WHERE id = :id OR a = :id * 10")) {
+            statement.setObject("id", 2, Types.INTEGER);
+            assertEquals(20, sum(statement.executeQuery()));
+            statement.setObject("id", 3, JDBCType.INTEGER);
+            assertEquals(30, sum(statement.executeQuery()));
+            statement.setObject("id", 4, Types.INTEGER, 0);
+            assertEquals(40, sum(statement.executeQuery()));
+        }
+    }
+
+    @Test
+    public void setParametersBindsJavaTimeValues() throws Exception {
+        try (NamedPreparedStatement statement = new NamedPreparedStatement(con, "SELECT a FROM t WHERE d = :d")) {
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("d", LocalDate.of(2016, 11, 11));
+            statement.setParameters(values);
+            assertEquals(10, sum(statement.executeQuery()));
+        }
+    }
+
+    @Test
+    public void setParametersReportsMissingAndUnknownParameters() throws Exception {
+        try (NamedPreparedStatement statement = new NamedPreparedStatement(con, "SELECT a FROM t WHERE id = :id AND a = :a")) {
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("id", 1);
+            values.put("x", 1);
+            statement.setParameters(values);
+            fail();
+        } catch (UnknownParameterException ex) {
+            assertEquals("Missing parameters: [a], unknown parameters: [x]", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void setCollectionKeepsEarlierListParameters() throws Exception {
+        try (NamedPreparedStatement statement = new NamedPreparedStatement(con, "SELECT a FROM t WHERE id IN (:ids) AND a IN (:as)")) {
+            statement.setCollection("ids", Arrays.asList(1, 2, 3));
+            statement.setCollection("as", Arrays.asList(10, 30, 40, 50, 60));
+            assertEquals(40, sum(statement.executeQuery()));
+        }
+    }
+
+    @Test
+    public void setCollectionRefusesToDropPendingBatch() throws Exception {
+        try (NamedPreparedStatement statement = new NamedPreparedStatement(con, "UPDATE t SET a = a + 1 WHERE id IN (:ids)")) {
+            statement.setCollection("ids", Arrays.asList(1));
+            statement.addBatch();
+            try {
+                statement.setCollection("ids", Arrays.asList(1, 2, 3));
+                fail();
+            } catch (IllegalStateException ex) {
+                /*Ожидаемая ошибка*/
+            }
+            assertEquals(1, statement.executeBatch().length);
+        }
+    }
+}
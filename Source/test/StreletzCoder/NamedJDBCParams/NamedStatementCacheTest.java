@@ -0,0 +1,101 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Повторное использование подготовленных запросов из кэша (H2)
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class NamedStatementCacheTest {
+
+    private static final String INSERT = "INSERT INTO t (id) VALUES (:id)";
+
+    private Connection con;
+    private NamedStatementCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        con = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement ddl = con.createStatement()) {
+            ddl.execute("CREATE TABLE t (id BIGINT)");
+        }
+        cache = new NamedStatementCache(con, 2);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        cache.close();
+        con.close();
+    }
+
+    private int count() throws SQLException {
+        try (Statement query = con.createStatement(); ResultSet rs = query.executeQuery("SELECT COUNT(*) FROM t")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void reusesStatementForSameSql() throws Exception {
+        NamedPreparedStatement first = cache.prepare(INSERT);
+        assertSame(first, cache.prepare(INSERT));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void reusedStatementHasNoPendingBatch() throws Exception {
+        NamedPreparedStatement first = cache.prepare(INSERT);
+        first.setLong("id", 1);
+        first.addBatch();
+        NamedPreparedStatement second = cache.prepare(INSERT);
+        second.setLong("id", 2);
+        second.addBatch();
+        assertEquals(1, second.executeBatch().length);
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void reusedStatementHasNoBufferedRows() throws Exception {
+        NamedPreparedStatement first = cache.prepare(INSERT);
+        first.getBatchBuffer().setLong(first.getParamSlot("id"), 1);
+        first.getBatchBuffer().addRow();
+        NamedPreparedStatement second = cache.prepare(INSERT);
+        assertEquals(0, second.getBatchBuffer().getRowCount());
+        second.getBatchBuffer().setLong(second.getParamSlot("id"), 2);
+        second.getBatchBuffer().addRow();
+        second.getBatchBuffer().flush();
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void replacesClosedStatement() throws Exception {
+        NamedPreparedStatement first = cache.prepare(INSERT);
+        first.close();
+        NamedPreparedStatement second = cache.prepare(INSERT);
+        assertNotSame(first, second);
+        assertTrue(!second.isClosed());
+    }
+
+    @Test
+    public void evictsAndClosesEldestStatement() throws Exception {
+        NamedPreparedStatement first = cache.prepare(INSERT);
+        cache.prepare("SELECT id FROM t WHERE id = :id");
+        cache.prepare("DELETE FROM t WHERE id = :id");
+        assertTrue(first.isClosed());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+}
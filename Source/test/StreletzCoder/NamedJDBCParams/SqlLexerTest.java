@@ -0,0 +1,86 @@
+package StreletzCoder.NamedJDBCParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Распознавание параметров в литералах, комментариях, строках в долларовых
+ * кавычках и приведениях типов
+ *
+ * @author Streletz, 2016, http://streletzcoder.ru/
+ */
+public class SqlLexerTest {
+
+    private static void assertConverted(String expected, List<String> expectedNames, String sql, ParamSyntax syntax) {
+        ArrayList<String> names = new ArrayList<String>();
+        assertEquals(expected, SqlLexer.convert(sql, syntax, names));
+        assertEquals(expectedNames, names);
+    }
+
+    @Test
+    public void skipsQuotedLiteralsAndIdentifiers() {
+        assertConverted("SELECT ':x', \":y\", `:z` FROM t WHERE a = ?", Arrays.asList("a"),
+                "SELECT ':x', \":y\", `:z` FROM t WHERE a = :a", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void skipsEscapedQuotesInsideLiterals() {
+        assertConverted("SELECT 'it''s :x' FROM t WHERE a = ?", Arrays.asList("a"),
+                "SELECT 'it''s :x' FROM t WHERE a = :a", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void skipsComments() {
+        assertConverted("SELECT 1 -- :x\n, /* :y */ ?", Arrays.asList("a"),
+                "SELECT 1 -- :x\n, /* :y */ :a", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void skipsDollarQuotedStrings() {
+        assertConverted("SELECT $$ :x $$, $tag$ :y $tag$, ?", Arrays.asList("a"),
+                "SELECT $$ :x $$, $tag$ :y $tag$, :a", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void keepsPostgresCasts() {
+        assertConverted("SELECT a::int, ?::text FROM t", Arrays.asList("b"),
+                "SELECT a::int, :b::text FROM t", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void keepsEscapedParameters() {
+        assertConverted("SELECT :a, ?", Arrays.asList("b"), "SELECT \\:a, :b", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void keepsRepeatedParameters() {
+        assertConverted("SELECT ?, ?, ?", Arrays.asList("a", "a", "b"), "SELECT :a, :a, :b", ParamSyntax.COLON);
+    }
+
+    @Test
+    public void atSignSyntaxSkipsSystemVariables() {
+        assertConverted("SELECT @@version, ?", Arrays.asList("a"), "SELECT @@version, @a", ParamSyntax.AT_SIGN);
+    }
+
+    @Test
+    public void dollarSyntaxSkipsPositionalParametersAndDollarQuotes() {
+        assertConverted("SELECT $1, ?, $$ $b $$", Arrays.asList("a"), "SELECT $1, $a, $$ $b $$", ParamSyntax.DOLLAR);
+    }
+
+    @Test
+    public void bracesSyntaxKeepsDottedNamesAndDropsOptions() {
+        assertConverted("SELECT ?, ?", Arrays.asList("user.id", "id"),
+                "SELECT #{user.id}, #{id,jdbcType=INTEGER}", ParamSyntax.BRACES);
+    }
+
+    @Test
+    public void findsValuesRowOutsideLiterals() {
+        assertArrayEquals(new int[]{25, 35}, SqlLexer.findValuesRow("INSERT INTO t (a) VALUES (:a, 'x)') RETURNING id"));
+        assertNull(SqlLexer.findValuesRow("SELECT 'VALUES (:a)' FROM t"));
+    }
+}